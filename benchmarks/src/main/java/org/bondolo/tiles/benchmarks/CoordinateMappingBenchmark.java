@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.benchmarks;
+
+import java.awt.geom.Point2D;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.bondolo.tiles.grid.GridMapView;
+import org.bondolo.tiles.grid.GridTileCoord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hit testing and coordinate mapping of views at several scales. Points are uniformly distributed over the
+ * map and coordinates over its tiles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CoordinateMappingBenchmark {
+
+    /**
+     * The number of random points and coordinates, a power of 2.
+     */
+    private static final int SAMPLES = 1 << 12;
+
+    @Param({"HEX", "RECT", "TRI"})
+    public Tiling tiling;
+
+    @Param({"8", "32", "128"})
+    public int side;
+
+    @Param({"256"})
+    public int mapSize;
+
+    private Probe<?> probe;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        probe = new Probe<>(tiling.view(mapSize, mapSize, side));
+    }
+
+    @Benchmark
+    public Object pointToCoord() {
+        return probe.pointToCoord(next++ & (SAMPLES - 1));
+    }
+
+    @Benchmark
+    public Object coordToPoint() {
+        return probe.coordToPoint(next++ & (SAMPLES - 1));
+    }
+
+    @Benchmark
+    public long pointToCoordPacked() {
+        return probe.pointToCoordPacked(next++ & (SAMPLES - 1));
+    }
+
+    @Benchmark
+    public Point2D coordToPointPacked() {
+        return probe.coordToPointPacked(next++ & (SAMPLES - 1));
+    }
+
+    /**
+     * Random points and coordinates for a view.
+     *
+     * @param <C> The class of a tile coordinate.
+     */
+    private static final class Probe<C extends GridTileCoord> {
+
+        private final GridMapView<?, ?, ?, C> view;
+        private final Point2D points[] = new Point2D[SAMPLES];
+        private final GridTileCoord coords[] = new GridTileCoord[SAMPLES];
+        private final long packed[] = new long[SAMPLES];
+        private final Point2D into = new Point2D.Double();
+
+        Probe(GridMapView<?, ?, ?, C> view) {
+            this.view = view;
+
+            var random = new SplittableRandom(SAMPLES);
+            var size = view.getPreferredSize();
+            var map = view.getRenderer().getMap();
+            for (int each = 0; each < SAMPLES; each++) {
+                points[each] = new Point2D.Double(random.nextDouble(size.getWidth()), random.nextDouble(size.getHeight()));
+                coords[each] = map.getTile(random.nextInt(map.getXSize()), random.nextInt(map.getYSize())).getCoord();
+                packed[each] = coords[each].pack();
+            }
+        }
+
+        C pointToCoord(int sample) {
+            return view.pointToCoord(points[sample]);
+        }
+
+        @SuppressWarnings("unchecked")
+        Point2D coordToPoint(int sample) {
+            return view.coordToPoint((C) coords[sample]);
+        }
+
+        long pointToCoordPacked(int sample) {
+            var point = points[sample];
+
+            return view.pointToCoordPacked(point.getX(), point.getY());
+        }
+
+        Point2D coordToPointPacked(int sample) {
+            return view.coordToPoint(packed[sample], into);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.benchmarks;
+
+import static java.awt.Color.WHITE;
+import java.awt.EventQueue;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import javax.swing.JComponent;
+
+/**
+ * Painting of views into offscreen images. Views may only be used on the event dispatch thread so painting,
+ * and the setup of views, are performed there and include the cost of handing off to that thread.
+ */
+final class Painting {
+
+    /**
+     * no instances
+     */
+    private Painting() {
+    }
+
+    /**
+     * Clear the image and paint the view into it, clipped to the bounds of the image.
+     *
+     * @param view The view to paint.
+     * @param image The destination image.
+     * @return The image.
+     */
+    static BufferedImage paint(JComponent view, BufferedImage image) {
+        onEventThread(() -> {
+            var g2 = image.createGraphics();
+            try {
+                g2.setBackground(WHITE);
+                g2.clearRect(0, 0, image.getWidth(), image.getHeight());
+                g2.clipRect(0, 0, image.getWidth(), image.getHeight());
+                view.paint(g2);
+            } finally {
+                g2.dispose();
+            }
+        });
+
+        return image;
+    }
+
+    /**
+     * Perform an action on the event dispatch thread and wait for it to complete.
+     *
+     * @param action The action to perform.
+     * @throws IllegalStateException if interrupted while waiting.
+     */
+    static void onEventThread(Runnable action) {
+        try {
+            EventQueue.invokeAndWait(action);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", interrupted);
+        } catch (InvocationTargetException failed) {
+            var cause = failed.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.benchmarks;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.bondolo.tiles.DetailPolicy;
+import org.bondolo.tiles.grid.GridMapView;
+import org.bondolo.tiles.grid.GridTile;
+import org.bondolo.tiles.grid.GridTileCoord;
+import org.bondolo.tiles.grid.GridTileDimension;
+import org.bondolo.tiles.grid.GridTileMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Painting of views into an offscreen image. The image is the visible window of the view, a square at the
+ * origin of the map, and a fraction of the tiles within the window are selected.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx3g"})
+public class RenderingBenchmark {
+
+    /**
+     * Drawing options of the view.
+     */
+    public enum DrawMode {
+        /**
+         * Each tile is drawn individually.
+         */
+        DEFAULT,
+        /**
+         * Tile styles are drawn from pre-rendered images.
+         */
+        RASTER,
+        /**
+         * Tile styles are drawn in batches.
+         */
+        BATCHED,
+        /**
+         * The level of detail is chosen from the tile size.
+         */
+        DETAIL;
+    }
+
+    @Param({"HEX", "RECT", "TRI"})
+    public Tiling tiling;
+
+    @Param({"17", "256", "4096"})
+    public int mapSize;
+
+    @Param({"8", "32"})
+    public int side;
+
+    /**
+     * Width and height of the image in pixels.
+     */
+    @Param({"512", "2048"})
+    public int clip;
+
+    /**
+     * Fraction of the tiles within the image which are selected.
+     */
+    @Param({"0", "0.25"})
+    public double selection;
+
+    @Param({"DEFAULT"})
+    public DrawMode mode;
+
+    private GridMapView<?, ?, ?, ?> view;
+
+    private BufferedImage image;
+
+    @Setup
+    public void setup() {
+        Painting.onEventThread(() -> {
+            view = tiling.view(mapSize, mapSize, side);
+            view.setSize(view.getPreferredSize());
+            image = new BufferedImage(clip, clip, TYPE_INT_ARGB);
+
+            switch (mode) {
+                case RASTER -> view.getRenderer().setRasterMode(true);
+                case BATCHED -> view.getRenderer().setBatched(true);
+                case DETAIL -> view.getRenderer().setDetailPolicy(DetailPolicy.bySize());
+                default -> {
+                }
+            }
+
+            select(view, clip, selection);
+        });
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        return Painting.paint(view, image);
+    }
+
+    /**
+     * Select a random fraction of the tiles within the window at the origin of the view.
+     *
+     * @param <M> The class of the tile map.
+     * @param <T> The class of a tile in the map.
+     * @param <D> The class of a tile dimension.
+     * @param <C> The class of a tile coordinate.
+     * @param view The view.
+     * @param window The width and height of the window.
+     * @param fraction The fraction of tiles to select.
+     */
+    private static <M extends GridTileMap<T, C, D>, T extends GridTile<C, D>, D extends GridTileDimension, C extends GridTileCoord> void select(
+            GridMapView<M, T, D, C> view, int window, double fraction) {
+        var random = new SplittableRandom(window);
+        var renderer = view.getRenderer();
+        var range = renderer.visibleRange(new Rectangle(window, window), view.getDimension(0));
+        var selected = new HashSet<T>();
+        renderer.getMap().tiles(range[0], range[1], range[2], range[3])
+                .filter(tile -> random.nextDouble() < fraction)
+                .forEach(selected::add);
+
+        view.setSelection(selected);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.benchmarks;
+
+import java.awt.image.BufferedImage;
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.bondolo.tictactoe.TicTacMap;
+import org.bondolo.tictactoe.TicTacTile.TileState;
+import org.bondolo.tictactoe.TicTacView;
+import org.bondolo.tiles.rect.RectTileDimension;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Painting of a Tic Tac Toe board into an offscreen image. The board size is fixed so only the scale, the
+ * fraction of played tiles and the fraction of selected tiles vary.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TicTacRenderingBenchmark {
+
+    @Param({"32", "128", "512"})
+    public int side;
+
+    /**
+     * Fraction of the tiles which have been played.
+     */
+    @Param({"0", "1"})
+    public double played;
+
+    /**
+     * Fraction of the tiles which are selected.
+     */
+    @Param({"0", "0.5"})
+    public double selection;
+
+    private TicTacView view;
+
+    private BufferedImage image;
+
+    @Setup
+    public void setup() {
+        Painting.onEventThread(() -> {
+            var board = new TicTacMap();
+            view = new TicTacView(board, new RectTileDimension[]{new RectTileDimension(side)}, 0);
+            var size = view.getPreferredSize();
+            view.setSize(size);
+            image = new BufferedImage(size.width, size.height, TYPE_INT_ARGB);
+
+            var random = new SplittableRandom(side);
+            board.tiles().forEach(tile -> {
+                if (random.nextDouble() < played) {
+                    tile.setState(random.nextBoolean() ? TileState.X : TileState.O);
+                }
+                if (random.nextDouble() < selection) {
+                    view.addToSelection(tile);
+                }
+            });
+        });
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        return Painting.paint(view, image);
+    }
+}
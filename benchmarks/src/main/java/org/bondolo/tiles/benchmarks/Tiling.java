@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.benchmarks;
+
+import org.bondolo.tiles.grid.GridMapView;
+import org.bondolo.tiles.hex.HexMapView;
+import org.bondolo.tiles.hex.HexTile;
+import org.bondolo.tiles.hex.HexTileCoord;
+import org.bondolo.tiles.hex.HexTileDimension;
+import org.bondolo.tiles.hex.HexTileMap;
+import org.bondolo.tiles.rect.RectMapView;
+import org.bondolo.tiles.rect.RectTile;
+import org.bondolo.tiles.rect.RectTileCoord;
+import org.bondolo.tiles.rect.RectTileDimension;
+import org.bondolo.tiles.rect.RectTileMap;
+import org.bondolo.tiles.tri.TriMapView;
+import org.bondolo.tiles.tri.TriTile;
+import org.bondolo.tiles.tri.TriTileCoord;
+import org.bondolo.tiles.tri.TriTileDimension;
+import org.bondolo.tiles.tri.TriTileMap;
+
+/**
+ * The tilings which are benchmarked and the construction of their maps and views.
+ */
+public enum Tiling {
+
+    HEX {
+        @Override
+        public HexMapView<HexTile> view(int xSize, int ySize, int side) {
+            var tiles = new HexTile[xSize][ySize];
+            for (var x = 0; x < xSize; x++) {
+                for (var y = 0; y < ySize; y++) {
+                    tiles[x][y] = new HexTile(new HexTileCoord(x, y));
+                }
+            }
+
+            return new HexMapView<>(new HexTileMap<>(tiles), new HexTileDimension[]{new HexTileDimension(side)}, 0);
+        }
+    },
+    RECT {
+        @Override
+        public RectMapView<RectTile> view(int xSize, int ySize, int side) {
+            var tiles = new RectTile[xSize][ySize];
+            for (var x = 0; x < xSize; x++) {
+                for (var y = 0; y < ySize; y++) {
+                    tiles[x][y] = new RectTile(new RectTileCoord(x, y));
+                }
+            }
+
+            return new RectMapView<>(new RectTileMap<>(tiles), new RectTileDimension[]{new RectTileDimension(side)}, 0);
+        }
+    },
+    TRI {
+        @Override
+        public TriMapView<TriTile> view(int xSize, int ySize, int side) {
+            var tiles = new TriTile[xSize][ySize];
+            for (var x = 0; x < xSize; x++) {
+                for (var y = 0; y < ySize; y++) {
+                    tiles[x][y] = new TriTile(new TriTileCoord(x, y));
+                }
+            }
+
+            return new TriMapView<>(new TriTileMap<>(tiles), new TriTileDimension[]{new TriTileDimension(side)}, 0);
+        }
+    };
+
+    /**
+     * Construct a view of a new map of this tiling with a single scale.
+     *
+     * @param xSize The number of columns of tiles.
+     * @param ySize The number of rows of tiles.
+     * @param side The length of a tile side in pixels.
+     * @return A view of the new map.
+     */
+    public abstract GridMapView<?, ?, ?, ?> view(int xSize, int ySize, int side);
+}
@@ -20,21 +20,23 @@
  * SOFTWARE.
  */
 import static java.awt.EventQueue.invokeLater;
+import org.bondolo.tiles.DetailPolicy;
 import org.bondolo.tiles.hex.HexMapView;
 import org.bondolo.tiles.hex.HexTile;
 import org.bondolo.tiles.hex.HexTileCoord;
 import org.bondolo.tiles.hex.HexTileDimension;
 import org.bondolo.tiles.hex.HexTileMap;
-import java.awt.Graphics2D;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.geom.Point2D;
 import java.util.stream.IntStream;
 import javax.swing.JFrame;
 import static javax.swing.WindowConstants.EXIT_ON_CLOSE;
 
 /**
- * Mini-demo for tiles. Click on tiles to see the tile highlighted
+ * Mini-demo for tiles. Click on tiles to see the tile highlighted, drag to pan and use the mouse wheel to
+ * zoom
  */
 public final class Main {
 
@@ -55,6 +57,10 @@ public final class Main {
      * base scaling factor for tile size
      */
     private static final int BASE_SCALE_FACTOR = 5;
+    /**
+     * Zoom factor for each step of the mouse wheel
+     */
+    private static final double WHEEL_ZOOM_FACTOR = 1.1;
 
     /**
      * Tile scales, powers of 2 starting at {@link #BASE_SCALE_FACTOR}
@@ -77,17 +83,33 @@ public final class Main {
      */
     public static void main(String[] args) {
 
-        var tiles = new HexTile[MAP_SIZE][MAP_SIZE];
+        var map = new HexTileMap<HexTile>(MAP_SIZE, MAP_SIZE,
+                (x, y) -> new HexTile(new HexTileCoord(x, y), "(" + x + "," + y + ")"));
+        var view = new HexMapView<HexTile>(map, TILE_SCALE_DIMENSIONS, INITIAL_SCALE);
+        view.setDetailPolicy(DetailPolicy.bySize());
+        view.setBatched(true);
+        var mouse = new MouseAdapter() {
+
+            /**
+             * The last point of a drag, if any
+             */
+            private Point2D dragFrom;
 
-        for (var x = 0; x < tiles.length; x++) {
-            for (var y = 0; y < tiles[x].length; y++) {
-                tiles[x][y] = new HexTile(new HexTileCoord(x, y), "(" + x + "," + y + ")");
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragFrom = e.getPoint();
             }
-        }
 
-        var map = new HexTileMap<HexTile>(tiles);
-        var view = new HexMapView<HexTile>(map, TILE_SCALE_DIMENSIONS, INITIAL_SCALE);
-        view.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                view.pan(e.getX() - dragFrom.getX(), e.getY() - dragFrom.getY());
+                dragFrom = e.getPoint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                view.zoom(Math.pow(WHEEL_ZOOM_FACTOR, -e.getPreciseWheelRotation()), e.getPoint());
+            }
 
             @Override
             public void mouseClicked(MouseEvent e) {
@@ -96,8 +118,6 @@ public final class Main {
                 var coord = view.pointToCoord(click);
 
                 if (null != coord) {
-                    var origin = view.coordToPoint(coord);
-                    var dim = view.getDimension(view.getScale());
                     var tile = map.getTile(coord);
                     tile.ifPresent(t -> {
                         var wasSelected = view.isSelected(t);
@@ -107,11 +127,13 @@ public final class Main {
                             view.addToSelection(t);
                         }
                         System.out.println((wasSelected ? "Deselected" : "Selected") + " tile " + t);
-                        t.draw((Graphics2D) view.getGraphics(), origin, dim, !wasSelected);
                     });
                 }
             }
-        });
+        };
+        view.addMouseListener(mouse);
+        view.addMouseMotionListener(mouse);
+        view.addMouseWheelListener(mouse);
 
         var f = new JFrame("Map");
         f.setTitle("Map Tiles Demonstration (click on tiles)");
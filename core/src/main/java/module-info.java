@@ -34,6 +34,11 @@ module org.bondolo.tiles {
     exports org.bondolo.tiles.hex;
     exports org.bondolo.tiles.rect;
     exports org.bondolo.tiles.tri;
+    // persistence
+    exports org.bondolo.tiles.io;
 
     requires transitive java.desktop;
+    requires transitive java.management;
+    requires jdk.jfr;
+    requires jdk.management;
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+
+/**
+ * The level of detail with which {@link TileView tiles} are drawn. Less detailed levels are drawn more quickly
+ * and are intended for scales at which the omitted detail could not be seen.
+ */
+public enum DetailLevel {
+
+    /**
+     * Tiles are {@link TileView#draw(Graphics2D, Point2D, TileDimension, boolean) drawn} completely.
+     */
+    FULL,
+    /**
+     * Only the {@link TileView#drawStyle(Graphics2D, Point2D, TileDimension, boolean) style} of tiles is drawn,
+     * omitting labels and other detail.
+     */
+    NO_LABELS,
+    /**
+     * Tiles are {@link TileView#drawFill(Graphics2D, Point2D, TileDimension, boolean) filled} without
+     * outlines or anti-aliasing.
+     */
+    FILL_ONLY,
+    /**
+     * Adjacent tiles are aggregated into blocks which are each filled with a single
+     * {@link TileView#getFillColor(boolean) color} without anti-aliasing.
+     */
+    BLOCKS;
+}
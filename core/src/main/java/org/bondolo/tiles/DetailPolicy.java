@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles;
+
+/**
+ * Chooses the {@link DetailLevel level of detail} with which tiles are drawn at a scale. The size of a tile on
+ * screen is the size of its dimensions multiplied by the scale of the graphics transform, which includes any
+ * zoom of the view.
+ *
+ * @param <D> The class of a tile dimension.
+ */
+@FunctionalInterface
+public interface DetailPolicy<D extends TileDimension> {
+
+    /**
+     * The default smallest tile size in pixels at which tiles are drawn with labels.
+     */
+    double DEFAULT_LABEL_SIZE = 64.0;
+    /**
+     * The default smallest tile size in pixels at which tile outlines are drawn.
+     */
+    double DEFAULT_OUTLINE_SIZE = 8.0;
+    /**
+     * The default smallest tile size in pixels at which tiles are drawn individually.
+     */
+    double DEFAULT_TILE_SIZE = 2.0;
+
+    /**
+     * Returns the level of detail for drawing tiles of the provided dimensions.
+     *
+     * @param dim The tile dimensions used for drawing.
+     * @param scale The scale of the graphics transform, the number of device pixels per unit of the
+     * dimensions.
+     * @return The level of detail for drawing.
+     */
+    DetailLevel detailLevel(D dim, double scale);
+
+    /**
+     * Returns a policy which always draws tiles with {@link DetailLevel#FULL full} detail.
+     *
+     * @param <D> The class of a tile dimension.
+     * @return A policy which always draws tiles with full detail.
+     */
+    static <D extends TileDimension> DetailPolicy<D> full() {
+        return (dim, scale) -> DetailLevel.FULL;
+    }
+
+    /**
+     * Returns a policy which chooses the level of detail from the tile size using the default thresholds.
+     *
+     * @param <D> The class of a tile dimension.
+     * @return A policy which chooses the level of detail from the tile size.
+     * @see #bySize(double, double, double)
+     */
+    static <D extends TileDimension> DetailPolicy<D> bySize() {
+        return bySize(DEFAULT_LABEL_SIZE, DEFAULT_OUTLINE_SIZE, DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Returns a policy which chooses the level of detail from the tile size, the lesser of the tile width
+     * and height multiplied by the scale.
+     *
+     * @param <D> The class of a tile dimension.
+     * @param labelSize The smallest tile size at which tiles are drawn with {@link DetailLevel#FULL full}
+     * detail.
+     * @param outlineSize The smallest tile size at which tiles are drawn with {@link DetailLevel#NO_LABELS no
+     * labels}.
+     * @param tileSize The smallest tile size at which tiles are drawn {@link DetailLevel#FILL_ONLY filled}.
+     * Smaller tiles are drawn as {@link DetailLevel#BLOCKS blocks}.
+     * @return A policy which chooses the level of detail from the tile size.
+     * @throws IllegalArgumentException if the sizes are not positive and in decreasing order.
+     */
+    static <D extends TileDimension> DetailPolicy<D> bySize(double labelSize, double outlineSize, double tileSize) {
+        if (!(tileSize > 0.0) || (outlineSize < tileSize) || (labelSize < outlineSize)) {
+            throw new IllegalArgumentException("Invalid sizes: " + labelSize + ", " + outlineSize + ", " + tileSize);
+        }
+
+        return (dim, scale) -> {
+            double size = Math.min(dim.getWidth(), dim.getHeight()) * scale;
+            if (size >= labelSize) {
+                return DetailLevel.FULL;
+            } else if (size >= outlineSize) {
+                return DetailLevel.NO_LABELS;
+            } else if (size >= tileSize) {
+                return DetailLevel.FILL_ONLY;
+            } else {
+                return DetailLevel.BLOCKS;
+            }
+        };
+    }
+}
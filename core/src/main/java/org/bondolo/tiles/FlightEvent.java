@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import static java.lang.invoke.MethodType.methodType;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.AnnotationElement;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventFactory;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.ValueDescriptor;
+
+/**
+ * A custom flight recorder event type.
+ *
+ * <p>Events are created with {@link EventFactory} and manipulated through method handles rather than by
+ * sub-classing {@link Event}. When compiling with {@code --release} the superclass of {@code Event} is not
+ * available to the compiler, so {@code Event} may not be sub-classed and its methods may not be invoked
+ * directly.
+ */
+final class FlightEvent {
+
+    /**
+     * The drawing of a frame of a map by a renderer.
+     */
+    static final FlightEvent RENDER_FRAME = new FlightEvent("org.bondolo.tiles.RenderFrame", "Render Frame",
+            "Drawing of the visible portion of a tile map",
+            field(String.class, "detailLevel", "Detail Level"),
+            field(long.class, "visited", "Tiles Visited"),
+            field(long.class, "drawn", "Tiles Drawn"),
+            field(long.class, "culled", "Tiles Culled"),
+            field(long.class, "allocated", "Bytes Allocated"));
+    /**
+     * The repaint of a region of a view.
+     */
+    static final FlightEvent REPAINT = new FlightEvent("org.bondolo.tiles.Repaint", "Map View Repaint",
+            "Repaint of a region of a tile map view",
+            field(int.class, "width", "Width"),
+            field(int.class, "height", "Height"),
+            field(long.class, "area", "Area"),
+            field(boolean.class, "gesture", "Gesture"));
+
+    /**
+     * Binds {@code EventFactory.newEvent()}.
+     */
+    private static final MethodHandle NEW_EVENT;
+    /**
+     * Binds {@code Event.begin()}.
+     */
+    private static final MethodHandle BEGIN;
+    /**
+     * Binds {@code Event.end()}.
+     */
+    private static final MethodHandle END;
+    /**
+     * Binds {@code Event.shouldCommit()}.
+     */
+    private static final MethodHandle SHOULD_COMMIT;
+    /**
+     * Binds {@code Event.set(int, Object)}.
+     */
+    private static final MethodHandle SET;
+    /**
+     * Binds {@code Event.commit()}.
+     */
+    private static final MethodHandle COMMIT;
+
+    static {
+        var lookup = MethodHandles.publicLookup();
+        var onEvent = methodType(void.class, Object.class);
+        try {
+            NEW_EVENT = lookup.findVirtual(EventFactory.class, "newEvent", methodType(Event.class))
+                    .asType(methodType(Object.class, EventFactory.class));
+            BEGIN = lookup.findVirtual(Event.class, "begin", methodType(void.class)).asType(onEvent);
+            END = lookup.findVirtual(Event.class, "end", methodType(void.class)).asType(onEvent);
+            SHOULD_COMMIT = lookup.findVirtual(Event.class, "shouldCommit", methodType(boolean.class))
+                    .asType(methodType(boolean.class, Object.class));
+            SET = lookup.findVirtual(Event.class, "set", methodType(void.class, int.class, Object.class))
+                    .asType(methodType(void.class, Object.class, int.class, Object.class));
+            COMMIT = lookup.findVirtual(Event.class, "commit", methodType(void.class)).asType(onEvent);
+        } catch (ReflectiveOperationException missing) {
+            throw new ExceptionInInitializerError(missing);
+        }
+    }
+
+    /**
+     * Factory for events of this type.
+     */
+    private final EventFactory factory;
+    /**
+     * The event type.
+     */
+    private final EventType type;
+
+    /**
+     * Construct a new event type.
+     *
+     * @param name The name of the event type.
+     * @param label The label of the event type.
+     * @param description The description of the event type.
+     * @param fields The fields of the event type.
+     */
+    private FlightEvent(String name, String label, String description, ValueDescriptor... fields) {
+        var annotations = new ArrayList<AnnotationElement>();
+        annotations.add(new AnnotationElement(Name.class, name));
+        annotations.add(new AnnotationElement(Label.class, label));
+        annotations.add(new AnnotationElement(Description.class, description));
+        annotations.add(new AnnotationElement(Category.class, new String[]{"Map Tiles", "Rendering"}));
+
+        factory = EventFactory.create(annotations, List.of(fields));
+        type = factory.getEventType();
+    }
+
+    /**
+     * Returns a field of an event type.
+     *
+     * @param type The type of the field.
+     * @param name The name of the field.
+     * @param label The label of the field.
+     * @return The field.
+     */
+    private static ValueDescriptor field(Class<?> type, String name, String label) {
+        return new ValueDescriptor(type, name, List.of(new AnnotationElement(Label.class, label)));
+    }
+
+    /**
+     * Begin timing an event if events of this type are being recorded.
+     *
+     * @return The event or {@code null} if events of this type are not being recorded.
+     */
+    Object begin() {
+        if (!type.isEnabled()) {
+            return null;
+        }
+
+        try {
+            var event = (Object) NEW_EVENT.invokeExact(factory);
+            BEGIN.invokeExact(event);
+
+            return event;
+        } catch (Throwable failed) {
+            throw new IllegalStateException("Event failed", failed);
+        }
+    }
+
+    /**
+     * End timing an event and record it with the provided field values if it meets the recording criteria.
+     *
+     * @param event The event returned by {@link #begin()} or {@code null}.
+     * @param values The values of the fields of the event in the order in which they were declared.
+     */
+    void commit(Object event, Object... values) {
+        if (null == event) {
+            return;
+        }
+
+        try {
+            END.invokeExact(event);
+            if ((boolean) SHOULD_COMMIT.invokeExact(event)) {
+                for (int each = 0; each < values.length; each++) {
+                    SET.invokeExact(event, each, values[each]);
+                }
+                COMMIT.invokeExact(event);
+            }
+        } catch (Throwable failed) {
+            throw new IllegalStateException("Event failed", failed);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Metrics of the drawing of {@link TileMap maps} by a {@link TileMapRenderer renderer} and the repainting of
+ * a {@link TileMapView view}. Metrics may be recorded concurrently and may be published through JMX.
+ *
+ * @see TileMapRenderer#setMetrics(RenderMetrics)
+ */
+public final class RenderMetrics implements RenderMetricsMXBean {
+
+    /**
+     * The JMX domain of registered metrics.
+     */
+    public static final String DOMAIN = "org.bondolo.tiles";
+    /**
+     * Upper bounds in microseconds of the frame duration histogram buckets.
+     */
+    private static final long HISTOGRAM_BOUNDS[] = {
+        1_000, 2_000, 4_000, 8_000, 16_667, 33_333, 66_667, 125_000, 250_000, 500_000, 1_000_000
+    };
+    /**
+     * The number of frames drawn.
+     */
+    private final LongAdder frames = new LongAdder();
+    /**
+     * The total duration in nanoseconds of the frames drawn.
+     */
+    private final LongAdder frameNanos = new LongAdder();
+    /**
+     * The longest duration in nanoseconds of a frame.
+     */
+    private final LongAccumulator maxFrameNanos = new LongAccumulator(Math::max, 0);
+    /**
+     * The number of frames within each duration bucket, the last bucket having no upper bound.
+     */
+    private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BOUNDS.length + 1);
+    /**
+     * The number of tiles considered for drawing.
+     */
+    private final LongAdder visited = new LongAdder();
+    /**
+     * The number of tiles drawn.
+     */
+    private final LongAdder drawn = new LongAdder();
+    /**
+     * The number of tiles considered but not drawn.
+     */
+    private final LongAdder culled = new LongAdder();
+    /**
+     * The number of bytes allocated while drawing frames.
+     */
+    private final LongAdder allocated = new LongAdder();
+    /**
+     * The number of view repaints.
+     */
+    private final LongAdder repaints = new LongAdder();
+    /**
+     * The total area in pixels of the repainted regions.
+     */
+    private final LongAdder repaintArea = new LongAdder();
+
+    /**
+     * Construct new metrics with all counts zero.
+     */
+    public RenderMetrics() {
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread.
+     *
+     * @return the number of bytes allocated by the current thread or zero if the platform does not measure
+     * thread allocation.
+     */
+    static long currentThreadAllocatedBytes() {
+        return ThreadAllocation.THREADS.isThreadAllocatedMemorySupported()
+                && ThreadAllocation.THREADS.isThreadAllocatedMemoryEnabled()
+                ? ThreadAllocation.THREADS.getCurrentThreadAllocatedBytes()
+                : 0L;
+    }
+
+    /**
+     * Record a frame.
+     *
+     * @param nanos The duration of the frame in nanoseconds.
+     * @param visited The number of tiles considered for drawing.
+     * @param drawn The number of tiles drawn.
+     * @param allocatedBytes The number of bytes allocated while drawing the frame.
+     */
+    public void recordFrame(long nanos, long visited, long drawn, long allocatedBytes) {
+        frames.increment();
+        frameNanos.add(nanos);
+        maxFrameNanos.accumulate(nanos);
+        histogram.incrementAndGet(bucket(nanos / 1_000));
+        this.visited.add(visited);
+        this.drawn.add(drawn);
+        this.culled.add(visited - drawn);
+        allocated.add(allocatedBytes);
+    }
+
+    /**
+     * Record the repaint of a region of a view.
+     *
+     * @param area The area in pixels of the repainted region.
+     */
+    public void recordRepaint(long area) {
+        repaints.increment();
+        repaintArea.add(area);
+    }
+
+    /**
+     * Register these metrics with the platform MBean server.
+     *
+     * @param name The name of the metrics, unique among registered metrics.
+     * @return The name with which the metrics were registered.
+     * @throws JMException if the metrics could not be registered.
+     */
+    public ObjectName register(String name) throws JMException {
+        var objectName = new ObjectName(DOMAIN, "name", ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+
+        return objectName;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return frames.sum();
+    }
+
+    @Override
+    public double getMeanFrameNanos() {
+        long count = frames.sum();
+
+        return (0 == count) ? 0.0 : (double) frameNanos.sum() / count;
+    }
+
+    @Override
+    public long getMaxFrameNanos() {
+        return maxFrameNanos.get();
+    }
+
+    @Override
+    public long[] getFrameHistogramBounds() {
+        return HISTOGRAM_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getFrameHistogram() {
+        var counts = new long[histogram.length()];
+        for (int each = 0; each < counts.length; each++) {
+            counts[each] = histogram.get(each);
+        }
+
+        return counts;
+    }
+
+    @Override
+    public long getTilesVisited() {
+        return visited.sum();
+    }
+
+    @Override
+    public long getTilesDrawn() {
+        return drawn.sum();
+    }
+
+    @Override
+    public long getTilesCulled() {
+        return culled.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocated.sum();
+    }
+
+    @Override
+    public long getRepaintCount() {
+        return repaints.sum();
+    }
+
+    @Override
+    public long getRepaintArea() {
+        return repaintArea.sum();
+    }
+
+    @Override
+    public void reset() {
+        frames.reset();
+        frameNanos.reset();
+        maxFrameNanos.reset();
+        for (int each = 0; each < histogram.length(); each++) {
+            histogram.set(each, 0);
+        }
+        visited.reset();
+        drawn.reset();
+        culled.reset();
+        allocated.reset();
+        repaints.reset();
+        repaintArea.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "frames=" + getFrameCount()
+                + " mean=" + Math.round(getMeanFrameNanos() / 1_000) + "us"
+                + " max=" + getMaxFrameNanos() / 1_000 + "us"
+                + " visited=" + getTilesVisited()
+                + " drawn=" + getTilesDrawn()
+                + " culled=" + getTilesCulled()
+                + " allocated=" + getAllocatedBytes()
+                + " repaints=" + getRepaintCount()
+                + " repaintArea=" + getRepaintArea();
+    }
+
+    /**
+     * Holder of the thread allocation measurement, initialized upon first use.
+     */
+    private static final class ThreadAllocation {
+
+        static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    /**
+     * Returns the histogram bucket of a frame duration.
+     *
+     * @param micros The frame duration in microseconds.
+     * @return The index of the histogram bucket.
+     */
+    private static int bucket(long micros) {
+        int each = 0;
+        while ((each < HISTOGRAM_BOUNDS.length) && (micros > HISTOGRAM_BOUNDS[each])) {
+            each++;
+        }
+
+        return each;
+    }
+}
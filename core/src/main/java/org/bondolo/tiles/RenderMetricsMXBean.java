@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles;
+
+/**
+ * Management interface of {@link RenderMetrics rendering metrics}.
+ */
+public interface RenderMetricsMXBean {
+
+    /**
+     * Returns the number of frames drawn. A frame is one drawing of the visible portion of a map.
+     *
+     * @return the number of frames drawn.
+     */
+    long getFrameCount();
+
+    /**
+     * Returns the mean duration of a frame in nanoseconds.
+     *
+     * @return the mean duration of a frame in nanoseconds or zero if no frames have been drawn.
+     */
+    double getMeanFrameNanos();
+
+    /**
+     * Returns the longest duration of a frame in nanoseconds.
+     *
+     * @return the longest duration of a frame in nanoseconds.
+     */
+    long getMaxFrameNanos();
+
+    /**
+     * Returns the upper bounds, in microseconds, of the buckets of the frame duration histogram. The last
+     * bucket of the histogram, which has no upper bound, is not included.
+     *
+     * @return the upper bounds of the frame duration histogram buckets.
+     */
+    long[] getFrameHistogramBounds();
+
+    /**
+     * Returns the number of frames in each bucket of the frame duration histogram.
+     *
+     * @return the number of frames in each bucket of the frame duration histogram.
+     */
+    long[] getFrameHistogram();
+
+    /**
+     * Returns the number of tiles considered for drawing.
+     *
+     * @return the number of tiles considered for drawing.
+     */
+    long getTilesVisited();
+
+    /**
+     * Returns the number of tiles drawn.
+     *
+     * @return the number of tiles drawn.
+     */
+    long getTilesDrawn();
+
+    /**
+     * Returns the number of tiles considered which were not drawn because they were outside the clip.
+     *
+     * @return the number of tiles culled.
+     */
+    long getTilesCulled();
+
+    /**
+     * Returns the number of bytes allocated by drawing threads while drawing frames. Zero if the platform
+     * does not measure thread allocation.
+     *
+     * @return the number of bytes allocated while drawing frames.
+     */
+    long getAllocatedBytes();
+
+    /**
+     * Returns the number of repaints of a view.
+     *
+     * @return the number of repaints of a view.
+     */
+    long getRepaintCount();
+
+    /**
+     * Returns the total area in pixels of repainted regions of a view.
+     *
+     * @return the total area in pixels of repainted regions.
+     */
+    long getRepaintArea();
+
+    /**
+     * Reset all of the metrics to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles;
+
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Collects the primitives drawn by many tiles into one path per combination of paint and stroke so that
+ * each path may be drawn with a single call. All fills are drawn before all outlines. A batch is used by a
+ * single thread for a single frame.
+ *
+ * @see TileView#batch(TileBatch, Point2D, TileDimension, boolean)
+ */
+public final class TileBatch {
+
+    /**
+     * Filled paths indexed by paint. A {@code null} paint is the foreground color.
+     */
+    private final Map<Paint, Path2D> fills = new LinkedHashMap<>();
+    /**
+     * Outline paths indexed by paint and then by stroke. A {@code null} paint is the foreground color and a
+     * {@code null} stroke is the current stroke.
+     */
+    private final Map<Paint, Map<Stroke, Path2D>> outlines = new LinkedHashMap<>();
+    /**
+     * Reusable translation.
+     */
+    private final AffineTransform translation = new AffineTransform();
+    /**
+     * The number of shapes added since the last flush.
+     */
+    private int size;
+    /**
+     * Values computed by tiles once per frame indexed by key.
+     */
+    private final Map<Object, Object> cache = new HashMap<>();
+
+    /**
+     * Construct a new empty batch.
+     */
+    TileBatch() {
+    }
+
+    /**
+     * Add a filled shape to the batch.
+     *
+     * @param shape The shape to fill.
+     * @param x The horizontal translation of the shape.
+     * @param y The vertical translation of the shape.
+     * @param paint The paint for the fill or {@code null} for the foreground color.
+     */
+    public void fill(Shape shape, double x, double y, Paint paint) {
+        translation.setToTranslation(x, y);
+        fill(shape, translation, paint);
+    }
+
+    /**
+     * Add a filled shape to the batch.
+     *
+     * @param shape The shape to fill.
+     * @param transform The transform of the shape.
+     * @param paint The paint for the fill or {@code null} for the foreground color.
+     */
+    public void fill(Shape shape, AffineTransform transform, Paint paint) {
+        fills.computeIfAbsent(paint, any -> new Path2D.Double())
+                .append(shape.getPathIterator(transform), false);
+        size++;
+    }
+
+    /**
+     * Add an outlined shape to the batch which is drawn with the current stroke.
+     *
+     * @param shape The shape to outline.
+     * @param x The horizontal translation of the shape.
+     * @param y The vertical translation of the shape.
+     * @param paint The paint for the outline or {@code null} for the foreground color.
+     */
+    public void draw(Shape shape, double x, double y, Paint paint) {
+        translation.setToTranslation(x, y);
+        draw(shape, translation, paint, null);
+    }
+
+    /**
+     * Add an outlined shape to the batch.
+     *
+     * @param shape The shape to outline.
+     * @param transform The transform of the shape. The stroke is not transformed.
+     * @param paint The paint for the outline or {@code null} for the foreground color.
+     * @param stroke The stroke for the outline or {@code null} for the current stroke.
+     */
+    public void draw(Shape shape, AffineTransform transform, Paint paint, Stroke stroke) {
+        outlines.computeIfAbsent(paint, any -> new LinkedHashMap<>())
+                .computeIfAbsent(stroke, any -> new Path2D.Double())
+                .append(shape.getPathIterator(transform), false);
+        size++;
+    }
+
+    /**
+     * Returns a value computed once per frame, such as a color looked up from the look and feel, so that each
+     * tile need not compute it again. Values are shared by all of the tiles drawn in the frame so keys must
+     * identify the value, not the tile.
+     *
+     * @param <K> The class of the key.
+     * @param <V> The class of the value.
+     * @param key The key of the value.
+     * @param compute Computes the value from the key if it has not yet been computed in this frame.
+     * @return The value.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> V cached(K key, Function<? super K, ? extends V> compute) {
+        var value = (V) cache.get(key);
+        if (null == value) {
+            value = compute.apply(key);
+            cache.put(key, value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the number of shapes added since the batch was last flushed.
+     *
+     * @return the number of shapes added since the batch was last flushed.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Draw the batched shapes and empty the batch. The paint and stroke of the graphics environment are
+     * restored afterwards.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     */
+    void flush(Graphics2D g2) {
+        if (0 == size) {
+            return;
+        }
+
+        var foreground = g2.getPaint();
+        var stroke = g2.getStroke();
+
+        fills.forEach((paint, path) -> {
+            g2.setPaint((null == paint) ? foreground : paint);
+            g2.fill(path);
+        });
+        outlines.forEach((paint, strokes) -> {
+            g2.setPaint((null == paint) ? foreground : paint);
+            strokes.forEach((each, path) -> {
+                g2.setStroke((null == each) ? stroke : each);
+                g2.draw(path);
+            });
+        });
+
+        g2.setPaint(foreground);
+        g2.setStroke(stroke);
+        fills.clear();
+        outlines.clear();
+        size = 0;
+    }
+}
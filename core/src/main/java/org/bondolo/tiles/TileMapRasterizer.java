@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles;
+
+import static java.awt.Color.BLACK;
+import static java.awt.Color.WHITE;
+import java.awt.Color;
+import java.awt.Font;
+import static java.awt.Font.PLAIN;
+import static java.awt.Font.SANS_SERIF;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * Rasterizes a {@link TileMap map} of {@link Tile tiles} into images. The image is divided into horizontal
+ * bands which are rendered in parallel, each into its own slice of the image, on a fork-join pool. The tiles
+ * drawn for each band are those which the {@link TileMapRenderer renderer} finds visible within the band.
+ *
+ * @param <M> The class of the tile map.
+ * @param <T> The class of a tile in the map.
+ * @param <D> The class of a tile dimension.
+ * @param <C> The class of a tile coordinate.
+ */
+public class TileMapRasterizer<M extends TileMap<T, C, D>, T extends Tile<C> & TileView<D>, D extends TileDimension, C extends TileCoord> {
+
+    /**
+     * The minimum height in pixels of a band.
+     */
+    private static final int MIN_BAND_HEIGHT = 32;
+    /**
+     * The number of bands per thread of the pool. Using several bands per thread balances the load when
+     * some bands are more expensive to draw than others.
+     */
+    private static final int BANDS_PER_THREAD = 4;
+    /**
+     * The renderer used for drawing.
+     */
+    private final TileMapRenderer<M, T, D, C> renderer;
+    /**
+     * The pool on which bands are rendered.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The color for drawing tiles.
+     */
+    private volatile Color foreground = BLACK;
+    /**
+     * The color for the background.
+     */
+    private volatile Color background = WHITE;
+    /**
+     * The font for drawing tiles.
+     */
+    private volatile Font font = new Font(SANS_SERIF, PLAIN, 12);
+
+    /**
+     * Construct a new rasterizer which renders on the common fork-join pool.
+     *
+     * @param renderer The renderer used for drawing.
+     */
+    public TileMapRasterizer(TileMapRenderer<M, T, D, C> renderer) {
+        this(renderer, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construct a new rasterizer.
+     *
+     * @param renderer The renderer used for drawing.
+     * @param pool The pool on which bands are rendered.
+     * @throws NullPointerException if renderer or pool is null
+     */
+    public TileMapRasterizer(TileMapRenderer<M, T, D, C> renderer, ForkJoinPool pool) {
+        this.renderer = Objects.requireNonNull(renderer, "Null renderer");
+        this.pool = Objects.requireNonNull(pool, "Null pool");
+    }
+
+    /**
+     * Returns the renderer used for drawing.
+     *
+     * @return the renderer used for drawing.
+     */
+    public TileMapRenderer<M, T, D, C> getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Set the colors used for drawing.
+     *
+     * @param foreground The color for drawing tiles.
+     * @param background The color for the background.
+     * @throws NullPointerException if either color is null
+     */
+    public void setColors(Color foreground, Color background) {
+        this.foreground = Objects.requireNonNull(foreground, "Null foreground");
+        this.background = Objects.requireNonNull(background, "Null background");
+    }
+
+    /**
+     * Set the font used for drawing.
+     *
+     * @param font The font for drawing tiles.
+     * @throws NullPointerException if font is null
+     */
+    public void setFont(Font font) {
+        this.font = Objects.requireNonNull(font, "Null font");
+    }
+
+    /**
+     * Rasterize the entire map into a new image.
+     *
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     * @return The image of the map.
+     */
+    public BufferedImage rasterize(D dim, Predicate<? super T> highlighted) {
+        var size = renderer.getMapSize(dim);
+        var image = new BufferedImage(size.width, size.height, TYPE_INT_ARGB);
+
+        rasterize(image, new Point2D.Double(), dim, highlighted);
+
+        return image;
+    }
+
+    /**
+     * Rasterize the portion of the map which lies under the provided image. The image is first filled with
+     * the background color. Does nothing if the image is empty.
+     *
+     * @param image The destination image.
+     * @param origin The point of the map which corresponds to the upper left corner of the image.
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     */
+    public void rasterize(BufferedImage image, Point2D origin, D dim, Predicate<? super T> highlighted) {
+        int height = image.getHeight();
+        if ((0 == height) || (0 == image.getWidth())) {
+            return;
+        }
+
+        int bands = Math.max(1, Math.min(height / MIN_BAND_HEIGHT, pool.getParallelism() * BANDS_PER_THREAD));
+
+        var task = new BandTask(image, origin.getX(), origin.getY(), dim, highlighted, 0, bands, bands);
+        pool.invoke(task);
+    }
+
+    /**
+     * Rasterize a single band of the image.
+     *
+     * @param image The destination image.
+     * @param originX The horizontal map position of the left edge of the image.
+     * @param originY The vertical map position of the top edge of the image.
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     * @param top The top row of the band within the image.
+     * @param bottom The row following the bottom of the band within the image.
+     */
+    private void rasterizeBand(BufferedImage image, double originX, double originY, D dim,
+            Predicate<? super T> highlighted, int top, int bottom) {
+        int width = image.getWidth();
+        if (bottom <= top) {
+            return;
+        }
+
+        var slice = image.getSubimage(0, top, width, bottom - top);
+        var g2 = slice.createGraphics();
+        try {
+            g2.setBackground(background);
+            g2.clearRect(0, 0, width, bottom - top);
+            g2.translate(-originX, -(originY + top));
+            g2.clip(new Rectangle2D.Double(originX, originY + top, width, bottom - top));
+            g2.setColor(foreground);
+            g2.setFont(font);
+
+            renderer.render(g2, dim, highlighted);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Renders a range of bands, splitting the range until a single band remains.
+     */
+    @SuppressWarnings("serial")
+    private final class BandTask extends RecursiveAction {
+
+        /**
+         * The destination image.
+         */
+        private final BufferedImage image;
+        /**
+         * The horizontal map position of the left edge of the image.
+         */
+        private final double originX;
+        /**
+         * The vertical map position of the top edge of the image.
+         */
+        private final double originY;
+        /**
+         * The tile dimensions to use for drawing.
+         */
+        private final D dim;
+        /**
+         * Selects the tiles which are drawn highlighted.
+         */
+        private final Predicate<? super T> highlighted;
+        /**
+         * The first band to render.
+         */
+        private final int from;
+        /**
+         * The band following the last band to render.
+         */
+        private final int to;
+        /**
+         * The total number of bands in the image.
+         */
+        private final int bands;
+
+        BandTask(BufferedImage image, double originX, double originY, D dim, Predicate<? super T> highlighted,
+                int from, int to, int bands) {
+            this.image = image;
+            this.originX = originX;
+            this.originY = originY;
+            this.dim = dim;
+            this.highlighted = highlighted;
+            this.from = from;
+            this.to = to;
+            this.bands = bands;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                        new BandTask(image, originX, originY, dim, highlighted, from, mid, bands),
+                        new BandTask(image, originX, originY, dim, highlighted, mid, to, bands));
+            } else {
+                int height = image.getHeight();
+                int top = (int) ((long) height * from / bands);
+                int bottom = (int) ((long) height * to / bands);
+
+                rasterizeBand(image, originX, originY, dim, highlighted, top, bottom);
+            }
+        }
+    }
+}
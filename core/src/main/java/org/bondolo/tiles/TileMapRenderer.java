@@ -0,0 +1,787 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import static java.awt.RenderingHints.KEY_ANTIALIASING;
+import static java.awt.RenderingHints.VALUE_ANTIALIAS_OFF;
+import static java.awt.RenderingHints.VALUE_ANTIALIAS_ON;
+import static java.awt.Transparency.TRANSLUCENT;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Renders a {@link TileMap map} of {@link Tile tiles} into a graphics environment. The renderer provides the
+ * mapping between tile coordinates and points for a tiling and does not depend upon Swing. A renderer may be
+ * used from any thread, including concurrently, and in a headless environment.
+ *
+ * @param <M> The class of the tile map.
+ * @param <T> The class of a tile in the map.
+ * @param <D> The class of a tile dimension.
+ * @param <C> The class of a tile coordinate.
+ */
+public abstract class TileMapRenderer<M extends TileMap<T, C, D>, T extends Tile<C> & TileView<D>, D extends TileDimension, C extends TileCoord> {
+
+    /**
+     * Rendering hints we will use for drawing.
+     *
+     * Turn on anti-aliasing.
+     */
+    static final RenderingHints HINTS = new RenderingHints(KEY_ANTIALIASING, VALUE_ANTIALIAS_ON);
+    /**
+     * Index within the frame counts of the number of tiles considered for drawing.
+     */
+    protected static final int VISITED = 0;
+    /**
+     * Index within the frame counts of the number of tiles drawn.
+     */
+    protected static final int DRAWN = 1;
+    /**
+     * The number of frame counts.
+     */
+    protected static final int FRAME_COUNTS = 2;
+    /**
+     * Margin in user space pixels around the tile bounds within a tile sprite image to allow for strokes which
+     * extend beyond the tile bounds.
+     */
+    private static final int SPRITE_MARGIN = 2;
+    /**
+     * Graphics transform under which sprites are drawn, mapping user space directly to device pixels.
+     */
+    private static final AffineTransform DEVICE = new AffineTransform();
+    /**
+     * Types of graphics transform under which sprites may be drawn: translation and a uniform scale.
+     */
+    private static final int SPRITE_TRANSFORMS = AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_UNIFORM_SCALE;
+    /**
+     * The number of shapes batched before the batch is drawn.
+     */
+    private static final int MAX_BATCH_SIZE = 4096;
+    /**
+     * The map rendered.
+     */
+    protected final M map;
+    /**
+     * If {@code true} then tiles with a style are drawn from pre-rendered sprite images.
+     */
+    private volatile boolean rasterMode;
+    /**
+     * If {@code true} then the styles of tiles are drawn in batches.
+     */
+    private volatile boolean batched;
+    /**
+     * Pre-rendered sprite images of tile styles for the most recently used dimension, scale and colors.
+     */
+    private volatile Sprites sprites;
+    /**
+     * Chooses the level of detail with which tiles are drawn.
+     */
+    private volatile DetailPolicy<? super D> detailPolicy = DetailPolicy.full();
+    /**
+     * Metrics of drawing or {@code null} if metrics are not recorded.
+     */
+    private volatile RenderMetrics metrics;
+
+    /**
+     * Construct a new map renderer.
+     *
+     * @param map The map to be rendered.
+     * @throws NullPointerException if map is null
+     */
+    protected TileMapRenderer(M map) {
+        this.map = Objects.requireNonNull(map, "Null map");
+    }
+
+    /**
+     * Returns the map rendered.
+     *
+     * @return the map rendered.
+     */
+    public M getMap() {
+        return map;
+    }
+
+    /**
+     * Returns {@code true} if tiles with a {@link TileView#getStyleKey() style} are drawn from pre-rendered
+     * images.
+     *
+     * @return {@code true} if raster mode is enabled.
+     */
+    public boolean isRasterMode() {
+        return rasterMode;
+    }
+
+    /**
+     * Enable or disable raster mode. In raster mode the {@link TileView#getStyleKey() style} of each tile is
+     * drawn by copying a pre-rendered image shared by all of the tiles with the same style at the same scale
+     * and highlight. Only the {@link TileView#drawDetail(Graphics2D, Point2D, TileDimension, boolean) detail}
+     * of each tile is drawn individually. Images are rendered at the resolution of the device, including
+     * the scale of the graphics transform, and positioned to the nearest device pixel so tiles may be drawn
+     * up to half a pixel from their precise location. Tiles drawn under a rotated, sheared, flipped or
+     * non-uniformly scaled graphics transform are not drawn from images.
+     *
+     * @param rasterMode if {@code true} then raster mode is enabled.
+     */
+    public void setRasterMode(boolean rasterMode) {
+        this.rasterMode = rasterMode;
+        this.sprites = null;
+    }
+
+    /**
+     * Returns {@code true} if the {@link TileView#batch(TileBatch, Point2D, TileDimension, boolean) styles}
+     * of tiles are drawn in batches.
+     *
+     * @return {@code true} if batched drawing is enabled.
+     */
+    public boolean isBatched() {
+        return batched;
+    }
+
+    /**
+     * Enable or disable batched drawing. When batched the styles of the tiles are collected into one path per
+     * combination of paint and stroke and each path is drawn with a single call. The detail of the tiles is
+     * drawn individually afterwards. Raster mode, if enabled, takes precedence over batched drawing.
+     *
+     * @param batched if {@code true} then batched drawing is enabled.
+     */
+    public void setBatched(boolean batched) {
+        this.batched = batched;
+    }
+
+    /**
+     * Returns the metrics of drawing by this renderer.
+     *
+     * @return the metrics of drawing or {@code null} if metrics are not recorded.
+     */
+    public RenderMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the metrics to which each frame drawn by this renderer is recorded. Frames are also recorded as
+     * {@code org.bondolo.tiles.RenderFrame} flight recorder events whenever that event is enabled.
+     *
+     * @param metrics the metrics of drawing or {@code null} to not record metrics.
+     */
+    public void setMetrics(RenderMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the policy which chooses the level of detail with which tiles are drawn.
+     *
+     * @return the policy which chooses the level of detail.
+     */
+    public DetailPolicy<? super D> getDetailPolicy() {
+        return detailPolicy;
+    }
+
+    /**
+     * Set the policy which chooses the level of detail with which tiles are drawn at each scale. By default
+     * tiles are always drawn with {@link DetailLevel#FULL full} detail.
+     *
+     * @param detailPolicy the policy which chooses the level of detail.
+     * @throws NullPointerException if detailPolicy is null
+     */
+    public void setDetailPolicy(DetailPolicy<? super D> detailPolicy) {
+        this.detailPolicy = Objects.requireNonNull(detailPolicy, "Null detail policy");
+    }
+
+    /**
+     * Returns the level of detail with which tiles of the provided dimensions are drawn at the provided scale.
+     *
+     * @param dim The tile dimensions.
+     * @param scale The scale of the graphics transform.
+     * @return the level of detail with which tiles are drawn.
+     */
+    public DetailLevel getDetailLevel(D dim, double scale) {
+        return detailPolicy.detailLevel(dim, scale);
+    }
+
+    /**
+     * Returns the level of detail with which tiles of the provided dimensions are drawn into the provided
+     * graphics environment, considering the scale of its transform.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     * @param dim The tile dimensions.
+     * @return the level of detail with which tiles are drawn.
+     */
+    public DetailLevel getDetailLevel(Graphics2D g2, D dim) {
+        return getDetailLevel(dim, scaleOf(g2));
+    }
+
+    /**
+     * Returns the scale of the transform of a graphics environment, the lesser of its horizontal and vertical
+     * scales.
+     *
+     * @param g2 the graphics environment.
+     * @return the number of device pixels per unit of user space.
+     */
+    protected static double scaleOf(Graphics2D g2) {
+        var transform = g2.getTransform();
+
+        return Math.min(
+                Math.hypot(transform.getScaleX(), transform.getShearY()),
+                Math.hypot(transform.getShearX(), transform.getScaleY()));
+    }
+
+    /**
+     * Render the map with anti-aliasing into the provided graphics environment. Tiles are drawn using the
+     * current color, background and font of the graphics environment.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     */
+    public void render(Graphics2D g2, D dim, Predicate<? super T> highlighted) {
+        g2.addRenderingHints(HINTS);
+
+        drawMap(g2, dim, highlighted);
+    }
+
+    /**
+     * Draw the map into the provided graphics environment. Only the tiles which are visible within the
+     * current clip are drawn. Tiles are drawn using the current color, background and font of the graphics
+     * environment and at the {@link #getDetailLevel(Graphics2D, TileDimension) level of detail} for the
+     * dimensions and the scale of the graphics transform.
+     * Anti-aliasing is disabled while drawing at the {@link DetailLevel#FILL_ONLY fill only} and
+     * {@link DetailLevel#BLOCKS blocks} levels.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     */
+    public void drawMap(Graphics2D g2, D dim, Predicate<? super T> highlighted) {
+        var level = getDetailLevel(g2, dim);
+        var frameMetrics = metrics;
+        var event = FlightEvent.RENDER_FRAME.begin();
+        boolean measured = (null != frameMetrics) || (null != event);
+        long start = measured ? System.nanoTime() : 0L;
+        long allocatedStart = measured ? RenderMetrics.currentThreadAllocatedBytes() : 0L;
+        var counts = new long[FRAME_COUNTS];
+
+        var antialias = g2.getRenderingHint(KEY_ANTIALIASING);
+        if (level.compareTo(DetailLevel.FILL_ONLY) >= 0) {
+            g2.setRenderingHint(KEY_ANTIALIASING, VALUE_ANTIALIAS_OFF);
+        }
+
+        try {
+            if (DetailLevel.BLOCKS == level) {
+                drawBlocks(g2, dim, highlighted, counts);
+            } else {
+                drawTiles(g2, dim, highlighted, level, counts);
+            }
+        } finally {
+            if (null != antialias) {
+                g2.setRenderingHint(KEY_ANTIALIASING, antialias);
+            }
+        }
+
+        if (measured) {
+            long allocated = RenderMetrics.currentThreadAllocatedBytes() - allocatedStart;
+            if (null != frameMetrics) {
+                frameMetrics.recordFrame(System.nanoTime() - start, counts[VISITED], counts[DRAWN], allocated);
+            }
+            if (null != event) {
+                FlightEvent.RENDER_FRAME.commit(event, level.name(), counts[VISITED], counts[DRAWN],
+                        counts[VISITED] - counts[DRAWN], allocated);
+            }
+        }
+    }
+
+    /**
+     * Draw each of the tiles visible within the current clip at the provided level of detail.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     * @param level The level of detail.
+     * @param counts The counts of tiles visited and drawn, which are incremented.
+     */
+    private void drawTiles(Graphics2D g2, D dim, Predicate<? super T> highlighted, DetailLevel level,
+            long counts[]) {
+        var clip = g2.getClipBounds();
+        var tiles = (null == clip)
+                ? map.tiles()
+                : visibleTiles(clip, dim);
+        if (batched && !rasterMode && (level.compareTo(DetailLevel.NO_LABELS) <= 0)) {
+            drawBatched(g2, tiles, dim, highlighted, level, counts);
+            return;
+        }
+
+        var foreground = g2.getColor();
+        var background = g2.getBackground();
+        var origin = new Point2D.Double();
+
+        tiles.forEach(tile -> {
+            g2.setBackground(background);
+            g2.setColor(foreground);
+
+            counts[VISITED]++;
+            if (drawTile(g2, tile, dim, highlighted.test(tile), origin, level)) {
+                counts[DRAWN]++;
+            }
+        });
+    }
+
+    /**
+     * Draw tiles by batching their styles. Tiles which do not batch their style are drawn individually after
+     * each batch followed by the detail of the batched tiles.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     * @param tiles The tiles to draw.
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     * @param level The level of detail, either {@link DetailLevel#FULL} or {@link DetailLevel#NO_LABELS}.
+     * @param counts The counts of tiles visited and drawn, which are incremented.
+     */
+    private void drawBatched(Graphics2D g2, Stream<T> tiles, D dim, Predicate<? super T> highlighted,
+            DetailLevel level, long counts[]) {
+        var clip = g2.getClip();
+        var batch = new TileBatch();
+        List<T> detailed = new ArrayList<>();
+        List<T> unbatched = new ArrayList<>();
+        var origin = new Point2D.Double();
+
+        tiles.forEach(tile -> {
+            counts[VISITED]++;
+            coordToPoint(tile.getCoord(), dim, origin);
+            if ((null == clip) || clip.intersects(origin.getX(), origin.getY(), dim.getWidth(), dim.getHeight())) {
+                counts[DRAWN]++;
+                if (!tile.batch(batch, origin, dim, highlighted.test(tile))) {
+                    unbatched.add(tile);
+                } else if (DetailLevel.FULL == level) {
+                    detailed.add(tile);
+                }
+
+                if (batch.size() >= MAX_BATCH_SIZE) {
+                    flushBatch(g2, batch, detailed, unbatched, dim, highlighted, level);
+                }
+            }
+        });
+
+        flushBatch(g2, batch, detailed, unbatched, dim, highlighted, level);
+    }
+
+    /**
+     * Draw a batch followed by the tiles which were not batched and the detail of the batched tiles.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     * @param batch The batch to draw.
+     * @param detailed The batched tiles who's detail is to be drawn. The list is cleared.
+     * @param unbatched The tiles which were not batched. The list is cleared.
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     * @param level The level of detail.
+     */
+    private void flushBatch(Graphics2D g2, TileBatch batch, List<T> detailed, List<T> unbatched, D dim,
+            Predicate<? super T> highlighted, DetailLevel level) {
+        var foreground = g2.getColor();
+        var background = g2.getBackground();
+        var origin = new Point2D.Double();
+
+        batch.flush(g2);
+
+        for (var tile : unbatched) {
+            g2.setBackground(background);
+            g2.setColor(foreground);
+
+            drawTile(g2, tile, dim, highlighted.test(tile), origin, level);
+        }
+        for (var tile : detailed) {
+            g2.setBackground(background);
+            g2.setColor(foreground);
+
+            tile.drawDetail(g2, coordToPoint(tile.getCoord(), dim, origin), dim, highlighted.test(tile));
+        }
+
+        g2.setBackground(background);
+        g2.setColor(foreground);
+        detailed.clear();
+        unbatched.clear();
+    }
+
+    /**
+     * Draw the tiles visible within the current clip aggregated into blocks of adjacent tiles, each filled
+     * with a single {@link TileView#getFillColor(boolean) color}. Called with anti-aliasing disabled.
+     *
+     * @implSpec The default implementation does not aggregate and fills each tile individually.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     * @param counts The counts of tiles visited and drawn, indexed by {@link #VISITED} and {@link #DRAWN},
+     * which are incremented.
+     */
+    protected void drawBlocks(Graphics2D g2, D dim, Predicate<? super T> highlighted, long counts[]) {
+        drawTiles(g2, dim, highlighted, DetailLevel.FILL_ONLY, counts);
+    }
+
+    /**
+     * Draw a tile into the provided graphics environment if it is visible within the current clip. The tile
+     * is drawn at the {@link #getDetailLevel(Graphics2D, TileDimension) level of detail} for the dimensions
+     * and the scale of the graphics transform.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     * @param tile the tile to draw.
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlight Draw the tile highlighted.
+     * @param origin A point which will be set to the origin of the tile.
+     */
+    public void drawTile(Graphics2D g2, T tile, D dim, boolean highlight, Point2D origin) {
+        drawTile(g2, tile, dim, highlight, origin, getDetailLevel(g2, dim));
+    }
+
+    /**
+     * Draw a tile at the provided level of detail if it is visible within the current clip.
+     *
+     * @param g2 the destination graphics environment for the drawing
+     * @param tile the tile to draw.
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlight Draw the tile highlighted.
+     * @param origin A point which will be set to the origin of the tile.
+     * @param level The level of detail.
+     * @return {@code true} if the tile was drawn or {@code false} if it was outside of the clip.
+     */
+    private boolean drawTile(Graphics2D g2, T tile, D dim, boolean highlight, Point2D origin, DetailLevel level) {
+        coordToPoint(tile.getCoord(), dim, origin);
+
+        var currentclip = g2.getClip();
+        if ((null != currentclip)
+                && !currentclip.intersects(origin.getX(), origin.getY(), dim.getWidth(), dim.getHeight())) {
+            return false;
+        }
+
+        if (level.compareTo(DetailLevel.FILL_ONLY) >= 0) {
+            tile.drawFill(g2, origin, dim, highlight);
+            return true;
+        }
+
+        var styleKey = rasterMode ? tile.getStyleKey() : null;
+        var transform = (null != styleKey) ? g2.getTransform() : null;
+        if ((null != transform) && (0 == (transform.getType() & ~SPRITE_TRANSFORMS))) {
+            double scale = transform.getScaleX();
+            var current = getSprites(g2, dim, scale);
+            var sprite = current.get(g2, styleKey, tile, dim, highlight);
+            // one image pixel per device pixel, at the nearest device pixel to the origin
+            g2.setTransform(DEVICE);
+            try {
+                g2.drawImage(sprite,
+                        (int) Math.round(origin.getX() * scale + transform.getTranslateX()) - current.margin,
+                        (int) Math.round(origin.getY() * scale + transform.getTranslateY()) - current.margin,
+                        null);
+            } finally {
+                g2.setTransform(transform);
+            }
+            if (DetailLevel.FULL == level) {
+                tile.drawDetail(g2, origin, dim, highlight);
+            }
+        } else if (DetailLevel.FULL == level) {
+            tile.draw(g2, origin, dim, highlight);
+        } else {
+            tile.drawStyle(g2, origin, dim, highlight);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the tiles which may be visible within the specified area. The result may include tiles which
+     * lie outside of the area but must include every tile which intersects it.
+     *
+     * @implSpec The default implementation returns all of the tiles in the map.
+     *
+     * @param area The area, usually the current clip, who's tiles are desired.
+     * @param dim The tile dimensions to use when mapping from the area to coordinates.
+     * @return a stream of the tiles which may be visible within the area.
+     */
+    public Stream<T> visibleTiles(Rectangle2D area, D dim) {
+        return map.tiles();
+    }
+
+    /**
+     * Returns the size in pixels of the entire map, limited to the range of {@code int}.
+     *
+     * @param dim The tile dimensions to use for sizing.
+     * @return The size in pixels of the entire map.
+     */
+    public Dimension getMapSize(D dim) {
+        var bounds = getMapBounds(dim);
+
+        return new Dimension(clampToInt(Math.ceil(bounds.getMaxX())), clampToInt(Math.ceil(bounds.getMaxY())));
+    }
+
+    /**
+     * Returns the bounds in pixels of the entire map. The bounds are not limited to the range of {@code int}.
+     *
+     * @param dim The tile dimensions to use for sizing.
+     * @return The bounds in pixels of the entire map.
+     */
+    public abstract Rectangle2D getMapBounds(D dim);
+
+    /**
+     * Returns the horizontal distance in pixels between the origins of adjacent columns of tiles.
+     *
+     * @implSpec The default implementation returns the tile width.
+     *
+     * @param dim The tile dimensions.
+     * @return The horizontal distance between adjacent columns of tiles.
+     */
+    public double getColumnStep(D dim) {
+        return dim.getWidth();
+    }
+
+    /**
+     * Returns the vertical distance in pixels between the origins of adjacent rows of tiles.
+     *
+     * @implSpec The default implementation returns the tile height.
+     *
+     * @param dim The tile dimensions.
+     * @return The vertical distance between adjacent rows of tiles.
+     */
+    public double getRowStep(D dim) {
+        return dim.getHeight();
+    }
+
+    /**
+     * Return the coordinate associated with the specified point considering the
+     * provided dimensions.
+     *
+     * @param point The point who's coordinate is desired.
+     * @param dim The tile dimensions to use when mapping from point to
+     * coordinate.
+     * @return The coordinates of the tile for the specified point or
+     * {@code null} if the point does not lie within a tile on the the map.
+     */
+    public abstract C pointToCoord(Point2D point, D dim);
+
+    /**
+     * Returns the point closest to the origin point for the tile at the
+     * specified coordinates.
+     *
+     * @param coord The coordinate who's origin point is desired.
+     * @param dim The tile dimensions to use when mapping from coordinates to
+     * a point.
+     * @return The point closest to the origin (0,0) for the tile at the
+     * specified coordinate.
+     */
+    public abstract Point2D coordToPoint(C coord, D dim);
+
+    /**
+     * Sets the provided point to the point closest to the origin point for the tile at the specified
+     * coordinates.
+     *
+     * @implSpec The default implementation copies the result of {@link #coordToPoint(TileCoord, TileDimension)}.
+     *
+     * @param coord The coordinate who's origin point is desired.
+     * @param dim The tile dimensions to use when mapping from coordinates to a point.
+     * @param into The point to be set.
+     * @return The provided point.
+     */
+    public Point2D coordToPoint(C coord, D dim, Point2D into) {
+        into.setLocation(coordToPoint(coord, dim));
+
+        return into;
+    }
+
+    /**
+     * Returns the center point of the specified coordinate for the specified dimension.
+     *
+     * HACK : This does not work for triangles and non-regular hexagons.
+     *
+     * @param coord coordinate who's center point is desired.
+     * @param dim dimension to be used in determining the point.
+     * @return The point location.
+     */
+    public Point2D coordToCentroidPoint(C coord, D dim) {
+        var origin = coordToPoint(coord, dim);
+
+        origin.setLocation(origin.getX() + dim.getWidth() / 2, origin.getY() + dim.getHeight() / 2);
+
+        return origin;
+    }
+
+    /**
+     * Returns the value limited to the range of {@code int}.
+     *
+     * @param value The value.
+     * @return The value limited to the range of {@code int}.
+     */
+    private static int clampToInt(double value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    /**
+     * Returns the pre-rendered images of tile styles for the dimension, scale and current colors and font of
+     * the graphics environment, replacing the images if any of them have changed.
+     *
+     * @param g2 The graphics environment in which the images will be drawn.
+     * @param dim The tile dimensions.
+     * @param scale The number of device pixels per unit of user space.
+     * @return The images.
+     */
+    private Sprites getSprites(Graphics2D g2, D dim, double scale) {
+        var current = sprites;
+        if ((null == current) || !current.matches(g2, dim, scale)) {
+            current = new Sprites(g2, dim, scale);
+            sprites = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Pre-rendered images of tile styles for a tile dimension, scale and drawing colors.
+     */
+    private static final class Sprites {
+
+        /**
+         * The tile dimension of the images.
+         */
+        private final TileDimension dim;
+
+        /**
+         * The number of device pixels per unit of user space of the images.
+         */
+        private final double scale;
+
+        /**
+         * Margin in device pixels around the tile bounds within the images.
+         */
+        final int margin;
+
+        /**
+         * The drawing color of the images.
+         */
+        private final Color foreground;
+
+        /**
+         * The background color of the images.
+         */
+        private final Color background;
+
+        /**
+         * The font of the images.
+         */
+        private final Font font;
+
+        /**
+         * Images of tile styles indexed by style key.
+         */
+        final ConcurrentMap<Object, Image> plain = new ConcurrentHashMap<>();
+
+        /**
+         * Images of highlighted tile styles indexed by style key.
+         */
+        final ConcurrentMap<Object, Image> highlighted = new ConcurrentHashMap<>();
+
+        Sprites(Graphics2D g2, TileDimension dim, double scale) {
+            this.dim = dim;
+            this.scale = scale;
+            this.margin = (int) Math.ceil(SPRITE_MARGIN * scale);
+            this.foreground = g2.getColor();
+            this.background = g2.getBackground();
+            this.font = g2.getFont();
+        }
+
+        /**
+         * Returns {@code true} if the images were drawn for the dimension, scale and the current colors and
+         * font of the graphics environment.
+         *
+         * @param g2 The graphics environment.
+         * @param dim The tile dimension.
+         * @param scale The number of device pixels per unit of user space.
+         * @return {@code true} if the images may be used.
+         */
+        boolean matches(Graphics2D g2, TileDimension dim, double scale) {
+            return (this.dim == dim)
+                    && (this.scale == scale)
+                    && Objects.equals(foreground, g2.getColor())
+                    && Objects.equals(background, g2.getBackground())
+                    && Objects.equals(font, g2.getFont());
+        }
+
+        /**
+         * Returns the image of the style of the provided tile, rendering it if necessary.
+         *
+         * @param <D> The class of the tile dimension.
+         * @param g2 The graphics environment in which the image will be drawn.
+         * @param styleKey The style key of the tile.
+         * @param tile The tile who's style image is desired.
+         * @param dim The tile dimensions.
+         * @param highlight If {@code true} then the image of the highlighted style is returned.
+         * @return The image of the tile style in device pixels with the tile origin at {@link #margin}.
+         */
+        <D extends TileDimension> Image get(Graphics2D g2, Object styleKey, TileView<D> tile, D dim,
+                boolean highlight) {
+            var cache = highlight ? highlighted : plain;
+
+            return cache.computeIfAbsent(styleKey, key -> create(g2, tile, dim, highlight));
+        }
+
+        /**
+         * Render an image of the style of the provided tile at the scale of the images.
+         *
+         * @param <D> The class of the tile dimension.
+         * @param g2 The graphics environment in which the image will be drawn.
+         * @param tile The tile who's style image is desired.
+         * @param dim The tile dimensions.
+         * @param highlight If {@code true} then the image of the highlighted style is rendered.
+         * @return The image of the tile style in device pixels with the tile origin at {@link #margin}.
+         */
+        private <D extends TileDimension> Image create(Graphics2D g2, TileView<D> tile, D dim, boolean highlight) {
+            int width = (int) Math.ceil(dim.getWidth() * scale) + 2 * margin;
+            int height = (int) Math.ceil(dim.getHeight() * scale) + 2 * margin;
+            // A compatible image can be cached in video memory by the graphics pipeline.
+            var sprite = g2.getDeviceConfiguration().createCompatibleImage(width, height, TRANSLUCENT);
+
+            var spriteg2 = sprite.createGraphics();
+            try {
+                spriteg2.addRenderingHints(HINTS);
+                spriteg2.setFont(g2.getFont());
+                spriteg2.setBackground(g2.getBackground());
+                spriteg2.setColor(g2.getColor());
+                spriteg2.translate(margin, margin);
+                spriteg2.scale(scale, scale);
+
+                tile.drawStyle(spriteg2, new Point2D.Double(), dim, highlight);
+            } finally {
+                spriteg2.dispose();
+            }
+
+            return sprite;
+        }
+    }
+}
@@ -21,23 +21,52 @@
  */
 package org.bondolo.tiles;
 
+import static java.awt.EventQueue.invokeLater;
 import static java.awt.EventQueue.isDispatchThread;
+import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.RenderingHints;
-import static java.awt.RenderingHints.KEY_ANTIALIASING;
-import static java.awt.RenderingHints.VALUE_ANTIALIAS_ON;
+import java.awt.Point;
+import java.awt.Rectangle;
+import static java.awt.RenderingHints.KEY_INTERPOLATION;
+import static java.awt.RenderingHints.VALUE_INTERPOLATION_BILINEAR;
+import static java.awt.Transparency.OPAQUE;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import static java.awt.image.BufferedImage.TYPE_INT_RGB;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 import javax.swing.JComponent;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import static javax.swing.SwingConstants.HORIZONTAL;
+import static javax.swing.SwingConstants.VERTICAL;
+import javax.swing.Timer;
 
 /**
  * A view onto a {@link TileMap map} of {@link Tile tiles}. The view has associated dimensioned scales for the
- * view, a current scale and the current selection of tiles within the view.
+ * view, a current scale and the current selection of tiles within the view. Drawing and the mapping between
+ * coordinates and points are provided by a {@link TileMapRenderer renderer}.
+ *
+ * <p>A {@link #getViewTransform() view transform} applied over the current scale provides continuous zoom
+ * and pan. While the view is being {@link #zoom(double, Point2D) zoomed} or {@link #pan(double, double)
+ * panned} it is painted by transforming a snapshot image of the view taken when the gesture began rather
+ * than by drawing the tiles. The tiles are drawn again once the gesture settles.
+ *
+ * <p>The view is {@link Scrollable} with increments aligned to the rows and columns of tiles. For maps
+ * too large to be represented as a component the view may be {@link #setVirtualized(boolean) virtualized}.
+ * A virtualized view is only as large as its visible window and scrolls by moving its
+ * {@link #setViewOrigin(double, double) view origin}, which is kept in {@code double} precision.
  *
  * @param <M> The class of the tile map.
  * @param <T> The class of a tile in the map.
@@ -45,18 +74,33 @@ import javax.swing.JComponent;
  * @param <C> The class of a tile coordinate.
  */
 @SuppressWarnings("serial")
-public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C> & TileView<D>, D extends TileDimension, C extends TileCoord> extends JComponent {
+public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C> & TileView<D>, D extends TileDimension, C extends TileCoord> extends JComponent implements Scrollable {
 
     /**
-     * Rendering hints we will use for drawing.
-     *
-     * Turn on anti-aliasing.
+     * Margin in pixels around the tile bounds which is repainted for a dirty tile to allow for strokes which
+     * extend beyond the tile bounds.
+     */
+    private static final int DIRTY_MARGIN = 2;
+    /**
+     * The maximum number of separate regions repainted for dirty tiles in a single frame.
      */
-    private static final RenderingHints HINTS = new RenderingHints(KEY_ANTIALIASING, VALUE_ANTIALIAS_ON);
+    private static final int MAX_DIRTY_REGIONS = 8;
+    /**
+     * The delay in milliseconds after the last zoom or pan before a gesture is considered complete.
+     */
+    private static final int GESTURE_SETTLE_DELAY = 150;
+    /**
+     * The number of rows and columns of tiles in the preferred size of a scrollable viewport.
+     */
+    private static final int VIEWPORT_TILES = 16;
     /**
      * The map associated with this view.
      */
     protected final M map;
+    /**
+     * The renderer for this view.
+     */
+    private final TileMapRenderer<M, T, D, C> renderer;
     /**
      * The view scales associated with this views.
      */
@@ -69,18 +113,51 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
      * The current selection in this view.
      */
     private final Set<T> selection = new HashSet<>();
+    /**
+     * Coordinates of the tiles which have changed since they were last drawn, added from any thread.
+     */
+    private final Set<C> dirtyTiles = ConcurrentHashMap.newKeySet();
+    /**
+     * If {@code true} then a repaint of the dirty tiles has been scheduled.
+     */
+    private final AtomicBoolean dirtyRepaintPending = new AtomicBoolean();
+    /**
+     * The transform from map points at the current scale to view points.
+     */
+    private final AffineTransform viewTransform = new AffineTransform();
+    /**
+     * The inverse of {@link #viewTransform}.
+     */
+    private final AffineTransform inverseViewTransform = new AffineTransform();
+    /**
+     * Image of the view at the start of the current gesture or {@code null} if no gesture is in progress.
+     */
+    private BufferedImage gestureSnapshot;
+    /**
+     * The inverse of the view transform at the time the gesture snapshot was taken.
+     */
+    private final AffineTransform snapshotInverse = new AffineTransform();
+    /**
+     * Ends the current gesture once it has settled.
+     */
+    private final Timer gestureTimer = new Timer(GESTURE_SETTLE_DELAY, e -> endGesture());
+    /**
+     * If {@code true} then the view is only as large as its visible window.
+     */
+    private boolean virtualized;
 
     /**
      * Construct a new map view.
      *
-     * @param map The map for this view.
+     * @param renderer The renderer for the map of this view.
      * @param scales The tile dimensions (scales) defined for this view.
      * @param initialScale The initial scale value to use for this view.
      * @throws IllegalArgumentException if scales is empty or initial scale is invalid
-     * @throws NullPointerException if map or scales are null
+     * @throws NullPointerException if renderer or scales are null
      */
-    protected TileMapView(M map, final D scales[], int initialScale) {
-        this.map = Objects.requireNonNull(map, "Null map");
+    protected TileMapView(TileMapRenderer<M, T, D, C> renderer, final D scales[], int initialScale) {
+        this.renderer = Objects.requireNonNull(renderer, "Null renderer");
+        this.map = renderer.getMap();
         this.scales = Objects.requireNonNull(scales, "Null scales").clone();
         this.scale = initialScale;
 
@@ -91,6 +168,8 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
         if ((initialScale < 0) || (initialScale >= scales.length)) {
             throw new IllegalArgumentException("Invalid initialScale");
         }
+
+        gestureTimer.setRepeats(false);
     }
 
     @Override
@@ -100,10 +179,265 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
         // Wipe the old.
         super.paintComponent(g);
 
-        var g2 = (Graphics2D) g;
-        g2.addRenderingHints(HINTS);
+        // Draw on a copy so that the border and children are not painted with the view transform.
+        var g2 = (Graphics2D) g.create();
+        var event = FlightEvent.REPAINT.begin();
+        var region = g2.getClipBounds();
+        if (null == region) {
+            region = new Rectangle(getWidth(), getHeight());
+        }
+        boolean gesture = null != gestureSnapshot;
+
+        try {
+            if (gesture) {
+                var snapshotToView = new AffineTransform(viewTransform);
+                snapshotToView.concatenate(snapshotInverse);
+
+                g2.setBackground(getBackground());
+                g2.clearRect(0, 0, getWidth(), getHeight());
+                g2.setRenderingHint(KEY_INTERPOLATION, VALUE_INTERPOLATION_BILINEAR);
+                g2.drawImage(gestureSnapshot, snapshotToView, null);
+            } else {
+                g2.addRenderingHints(TileMapRenderer.HINTS);
+                g2.transform(viewTransform);
+
+                drawMap(g2);
+            }
+        } finally {
+            g2.dispose();
+        }
+
+        var metrics = renderer.getMetrics();
+        if (null != metrics) {
+            metrics.recordRepaint(area(region));
+        }
+        if (null != event) {
+            FlightEvent.REPAINT.commit(event, region.width, region.height, area(region), gesture);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the size of the map at the current scale after applying the scaling, but not the
+     * translation, of the view transform, limited to the range of {@code int}. If the view is virtualized
+     * then returns the {@link #getPreferredScrollableViewportSize() preferred viewport size}.
+     */
+    @Override
+    public Dimension getPreferredSize() {
+        if (virtualized) {
+            return getPreferredScrollableViewportSize();
+        }
+
+        var bounds = getWorldBounds();
+
+        return new Dimension(clampToInt(Math.ceil(bounds.getWidth())), clampToInt(Math.ceil(bounds.getHeight())));
+    }
+
+    /**
+     * Returns the bounds of the map in view pixels at the current scale and view transform. The bounds are
+     * not limited to the range of {@code int}.
+     *
+     * @return The bounds of the map in view pixels.
+     */
+    public Rectangle2D getWorldBounds() {
+        var bounds = renderer.getMapBounds(getDimension(scale));
+
+        return viewTransform.createTransformedShape(bounds).getBounds2D();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the size of sixteen rows and columns of tiles, or the size of the
+     * map if it is smaller.
+     */
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        var bounds = getWorldBounds();
+        double width = Math.min(bounds.getWidth(), VIEWPORT_TILES * getTileStep(HORIZONTAL));
+        double height = Math.min(bounds.getHeight(), VIEWPORT_TILES * getTileStep(VERTICAL));
+
+        return new Dimension(clampToInt(Math.ceil(width)), clampToInt(Math.ceil(height)));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Scrolls to the next row or column boundary of tiles in the scroll direction.
+     */
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        double step = getTileStep(orientation);
+        double position = (HORIZONTAL == orientation)
+                ? visibleRect.x - viewTransform.getTranslateX()
+                : visibleRect.y - viewTransform.getTranslateY();
+        double boundary = (direction < 0)
+                ? (Math.ceil(position / step) - 1) * step
+                : (Math.floor(position / step) + 1) * step;
+
+        return Math.max(1, clampToInt(Math.round(Math.abs(boundary - position))));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Scrolls by the whole rows or columns of tiles which fit in the visible area less one, such that
+     * one row or column remains visible.
+     */
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        double step = getTileStep(orientation);
+        double extent = (HORIZONTAL == orientation) ? visibleRect.width : visibleRect.height;
+
+        return Math.max(1, clampToInt(Math.max(step, (Math.floor(extent / step) - 1) * step)));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns {@code true} if the view is virtualized or narrower than its viewport.
+     */
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return virtualized
+                || ((getParent() instanceof JViewport) && (getParent().getWidth() > getPreferredSize().width));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns {@code true} if the view is virtualized or shorter than its viewport.
+     */
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return virtualized
+                || ((getParent() instanceof JViewport) && (getParent().getHeight() > getPreferredSize().height));
+    }
+
+    /**
+     * Returns the distance in view pixels between adjacent rows or columns of tiles.
+     *
+     * @param orientation {@link javax.swing.SwingConstants#HORIZONTAL} for columns or
+     * {@link javax.swing.SwingConstants#VERTICAL} for rows.
+     * @return the distance in view pixels between adjacent rows or columns of tiles.
+     */
+    private double getTileStep(int orientation) {
+        var dim = getDimension(scale);
+
+        return (HORIZONTAL == orientation)
+                ? renderer.getColumnStep(dim) * Math.hypot(viewTransform.getScaleX(), viewTransform.getShearY())
+                : renderer.getRowStep(dim) * Math.hypot(viewTransform.getShearX(), viewTransform.getScaleY());
+    }
+
+    /**
+     * Returns {@code true} if the view is virtualized.
+     *
+     * @return {@code true} if the view is virtualized.
+     */
+    public boolean isVirtualized() {
+        return virtualized;
+    }
+
+    /**
+     * Enable or disable virtualization. A virtualized view is only as large as its visible window, tracking
+     * the size of its viewport if it has one, and is scrolled by moving its {@link #setViewOrigin(double,
+     * double) view origin} rather than by the viewport. The position of the visible window within the map is
+     * retained when virtualization is enabled or disabled.
+     *
+     * @param virtualized if {@code true} then the view is virtualized.
+     */
+    public void setVirtualized(boolean virtualized) {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        if (this.virtualized != virtualized) {
+            discardGesture();
+            if (getParent() instanceof JViewport) {
+                var viewport = (JViewport) getParent();
+                var position = viewport.getViewPosition();
+                var transform = new AffineTransform(viewTransform);
+                if (virtualized) {
+                    transform.preConcatenate(AffineTransform.getTranslateInstance(-position.x, -position.y));
+                    updateViewTransform(transform);
+                    this.virtualized = true;
+                    viewport.setViewPosition(new Point());
+                } else {
+                    double x = -viewTransform.getTranslateX();
+                    double y = -viewTransform.getTranslateY();
+                    transform.preConcatenate(AffineTransform.getTranslateInstance(x, y));
+                    updateViewTransform(transform);
+                    this.virtualized = false;
+                    revalidate();
+                    invokeLater(() -> viewport.setViewPosition(new Point(clampToInt(x), clampToInt(y))));
+                }
+            } else {
+                this.virtualized = virtualized;
+            }
+
+            revalidate();
+            repaint();
+        }
+    }
+
+    /**
+     * Returns the map point at the current scale which is at the upper left corner of the view.
+     *
+     * @return the map point at the upper left corner of the view.
+     */
+    public Point2D getViewOrigin() {
+        return viewToMap(new Point2D.Double(), new Point2D.Double());
+    }
+
+    /**
+     * Scroll the view such that the specified map point at the current scale is at the upper left corner of
+     * the view. The position is kept in {@code double} precision and is not limited by the size of the view.
+     *
+     * @param x The horizontal map position.
+     * @param y The vertical map position.
+     */
+    public void setViewOrigin(double x, double y) {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        var at = mapToView(new Point2D.Double(x, y), new Point2D.Double());
+        var transform = new AffineTransform(viewTransform);
+        transform.preConcatenate(AffineTransform.getTranslateInstance(-at.getX(), -at.getY()));
+        updateViewTransform(transform);
+        discardGesture();
+
+        repaint();
+    }
+
+    /**
+     * Scroll the view by whole rows and columns of tiles.
+     *
+     * @param columns The number of columns to scroll, positive to move the view right.
+     * @param rows The number of rows to scroll, positive to move the view down.
+     */
+    public void scrollByTiles(int columns, int rows) {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        var dim = getDimension(scale);
+        var origin = getViewOrigin();
+
+        setViewOrigin(
+                origin.getX() + columns * renderer.getColumnStep(dim),
+                origin.getY() + rows * renderer.getRowStep(dim));
+    }
+
+    /**
+     * Returns the value limited to the range of {@code int}.
+     *
+     * @param value The value.
+     * @return The value limited to the range of {@code int}.
+     */
+    private static int clampToInt(double value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
 
-        drawMap(g2);
+    /**
+     * Returns the renderer for this view.
+     *
+     * @return the renderer for this view.
+     */
+    public TileMapRenderer<M, T, D, C> getRenderer() {
+        return renderer;
     }
 
     /**
@@ -129,12 +463,320 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
         }
 
         this.scale = scale;
+        dirtyTiles.clear();
+        discardGesture();
 
         repaint();
 
         return scale;
     }
 
+    /**
+     * Returns the transform from map points at the current scale to view points.
+     *
+     * @return A copy of the view transform.
+     */
+    public AffineTransform getViewTransform() {
+        return new AffineTransform(viewTransform);
+    }
+
+    /**
+     * Set the transform from map points at the current scale to view points. Any gesture in progress is
+     * ended.
+     *
+     * @param transform The view transform.
+     * @throws IllegalArgumentException if the transform is not invertible
+     * @throws NullPointerException if the transform is null
+     */
+    public void setViewTransform(AffineTransform transform) {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        updateViewTransform(Objects.requireNonNull(transform, "Null transform"));
+        discardGesture();
+
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Zoom the view about an anchor point which remains stationary. Successive zooms and pans form a gesture
+     * during which the view is painted from a snapshot.
+     *
+     * @param factor The zoom factor, greater than 1 to zoom in or less than 1 to zoom out.
+     * @param anchor The view point about which to zoom.
+     * @throws IllegalArgumentException if the factor is not positive and finite
+     */
+    public void zoom(double factor, Point2D anchor) {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        if (!(factor > 0.0) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("Invalid zoom factor: " + factor);
+        }
+
+        var zoom = AffineTransform.getTranslateInstance(anchor.getX(), anchor.getY());
+        zoom.scale(factor, factor);
+        zoom.translate(-anchor.getX(), -anchor.getY());
+
+        gesture(zoom);
+    }
+
+    /**
+     * Pan the view. Successive zooms and pans form a gesture during which the view is painted from a snapshot.
+     *
+     * @param dx The horizontal distance in view pixels to move the map.
+     * @param dy The vertical distance in view pixels to move the map.
+     */
+    public void pan(double dx, double dy) {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        gesture(AffineTransform.getTranslateInstance(dx, dy));
+    }
+
+    /**
+     * Returns {@code true} if a zoom or pan gesture is in progress.
+     *
+     * @return {@code true} if a zoom or pan gesture is in progress.
+     */
+    public boolean isGestureInProgress() {
+        return null != gestureSnapshot;
+    }
+
+    /**
+     * End the current zoom or pan gesture, if any, and repaint the view by drawing the tiles.
+     */
+    public void endGesture() {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        if (null != gestureSnapshot) {
+            discardGesture();
+
+            revalidate();
+            repaint();
+        }
+    }
+
+    /**
+     * Apply a change to the view transform as part of a gesture, taking a snapshot of the view if the gesture
+     * is just beginning.
+     *
+     * @param change The change, in view coordinates, to apply to the view transform.
+     */
+    private void gesture(AffineTransform change) {
+        if (null == gestureSnapshot) {
+            gestureSnapshot = snapshot();
+            snapshotInverse.setTransform(inverseViewTransform);
+        }
+
+        var transform = new AffineTransform(viewTransform);
+        transform.preConcatenate(change);
+        updateViewTransform(transform);
+
+        if (null != gestureSnapshot) {
+            gestureTimer.restart();
+        }
+        repaint();
+    }
+
+    /**
+     * Discard the current gesture snapshot, if any.
+     */
+    private void discardGesture() {
+        gestureTimer.stop();
+        gestureSnapshot = null;
+    }
+
+    /**
+     * Draw an image of the view as it currently appears.
+     *
+     * @return An image of the view or {@code null} if the view has no area.
+     */
+    private BufferedImage snapshot() {
+        int width = getWidth();
+        int height = getHeight();
+        if ((width <= 0) || (height <= 0)) {
+            return null;
+        }
+
+        var config = getGraphicsConfiguration();
+        var image = (null != config)
+                ? config.createCompatibleImage(width, height, OPAQUE)
+                : new BufferedImage(width, height, TYPE_INT_RGB);
+        var g2 = image.createGraphics();
+        try {
+            g2.setBackground(getBackground());
+            g2.clearRect(0, 0, width, height);
+            g2.setFont(getFont());
+            g2.clipRect(0, 0, width, height);
+            g2.addRenderingHints(TileMapRenderer.HINTS);
+            g2.transform(viewTransform);
+
+            drawMap(g2);
+        } finally {
+            g2.dispose();
+        }
+
+        return image;
+    }
+
+    /**
+     * Set the view transform and its inverse.
+     *
+     * @param transform The new view transform.
+     * @throws IllegalArgumentException if the transform is not invertible
+     */
+    private void updateViewTransform(AffineTransform transform) {
+        AffineTransform inverse;
+        try {
+            inverse = transform.createInverse();
+        } catch (NoninvertibleTransformException notInvertible) {
+            throw new IllegalArgumentException("View transform is not invertible", notInvertible);
+        }
+
+        viewTransform.setTransform(transform);
+        inverseViewTransform.setTransform(inverse);
+    }
+
+    /**
+     * Sets the provided point to the map point at the current scale corresponding to a view point.
+     *
+     * @param view The view point.
+     * @param into The point to be set.
+     * @return The provided point.
+     */
+    public Point2D viewToMap(Point2D view, Point2D into) {
+        return inverseViewTransform.transform(view, into);
+    }
+
+    /**
+     * Returns the horizontal position of the map point at the current scale corresponding to a view point.
+     *
+     * @param x The horizontal position of the view point.
+     * @param y The vertical position of the view point.
+     * @return The horizontal position of the map point.
+     */
+    protected final double viewToMapX(double x, double y) {
+        return inverseViewTransform.getScaleX() * x + inverseViewTransform.getShearX() * y
+                + inverseViewTransform.getTranslateX();
+    }
+
+    /**
+     * Returns the vertical position of the map point at the current scale corresponding to a view point.
+     *
+     * @param x The horizontal position of the view point.
+     * @param y The vertical position of the view point.
+     * @return The vertical position of the map point.
+     */
+    protected final double viewToMapY(double x, double y) {
+        return inverseViewTransform.getShearY() * x + inverseViewTransform.getScaleY() * y
+                + inverseViewTransform.getTranslateY();
+    }
+
+    /**
+     * Sets the provided point to the view point corresponding to a map point at the current scale.
+     *
+     * @param map The map point.
+     * @param into The point to be set.
+     * @return The provided point.
+     */
+    public Point2D mapToView(Point2D map, Point2D into) {
+        return viewTransform.transform(map, into);
+    }
+
+    /**
+     * Returns {@code true} if tiles with a {@link TileView#getStyleKey() style} are drawn from pre-rendered
+     * images.
+     *
+     * @return {@code true} if raster mode is enabled.
+     */
+    public boolean isRasterMode() {
+        return renderer.isRasterMode();
+    }
+
+    /**
+     * Enable or disable raster mode. In raster mode the {@link TileView#getStyleKey() style} of each tile is
+     * drawn by copying a pre-rendered image shared by all of the tiles with the same style at the same scale
+     * and highlight. Only the {@link TileView#drawDetail(Graphics2D, Point2D, TileDimension, boolean) detail}
+     * of each tile is drawn individually. Images are positioned to the nearest pixel so tiles may be drawn
+     * up to half a pixel from their precise location.
+     *
+     * @param rasterMode if {@code true} then raster mode is enabled.
+     * @see TileMapRenderer#setRasterMode(boolean)
+     */
+    public void setRasterMode(boolean rasterMode) {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        if (renderer.isRasterMode() != rasterMode) {
+            renderer.setRasterMode(rasterMode);
+            repaint();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the styles of tiles are drawn in batches.
+     *
+     * @return {@code true} if batched drawing is enabled.
+     */
+    public boolean isBatched() {
+        return renderer.isBatched();
+    }
+
+    /**
+     * Enable or disable batched drawing. When batched the styles of the tiles are collected into one path per
+     * combination of paint and stroke and each path is drawn with a single call.
+     *
+     * @param batched if {@code true} then batched drawing is enabled.
+     * @see TileMapRenderer#setBatched(boolean)
+     */
+    public void setBatched(boolean batched) {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        if (renderer.isBatched() != batched) {
+            renderer.setBatched(batched);
+            repaint();
+        }
+    }
+
+    /**
+     * Returns the metrics of painting this view.
+     *
+     * @return the metrics of painting or {@code null} if metrics are not recorded.
+     * @see TileMapRenderer#getMetrics()
+     */
+    public RenderMetrics getMetrics() {
+        return renderer.getMetrics();
+    }
+
+    /**
+     * Set the metrics to which painting of this view is recorded. Each repaint of the view records the area
+     * of the repainted region and each drawing of the map records a frame. Repaints are also recorded as
+     * {@code org.bondolo.tiles.Repaint} flight recorder events whenever that event is enabled.
+     *
+     * @param metrics the metrics of painting or {@code null} to not record metrics.
+     * @see TileMapRenderer#setMetrics(RenderMetrics)
+     */
+    public void setMetrics(RenderMetrics metrics) {
+        renderer.setMetrics(metrics);
+    }
+
+    /**
+     * Returns the policy which chooses the level of detail with which tiles are drawn.
+     *
+     * @return the policy which chooses the level of detail.
+     * @see TileMapRenderer#getDetailPolicy()
+     */
+    public DetailPolicy<? super D> getDetailPolicy() {
+        return renderer.getDetailPolicy();
+    }
+
+    /**
+     * Set the policy which chooses the level of detail with which tiles are drawn at each scale. By default
+     * tiles are always drawn with {@link DetailLevel#FULL full} detail.
+     *
+     * @param detailPolicy the policy which chooses the level of detail.
+     * @see TileMapRenderer#setDetailPolicy(DetailPolicy)
+     */
+    public void setDetailPolicy(DetailPolicy<? super D> detailPolicy) {
+        assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
+        if (renderer.getDetailPolicy() != detailPolicy) {
+            renderer.setDetailPolicy(detailPolicy);
+            repaint();
+        }
+    }
+
     /**
      * Return he number of tile dimensions (scales) defined for this view.
      *
@@ -166,23 +808,28 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
     }
 
     /**
-     * Return the tile coordinate associated with the specified point in 2D space.
+     * Return the tile coordinate associated with the specified view point at the current scale and view
+     * transform.
      *
-     * @param point The pixel position to translate.
+     * @param point The pixel position within the view to translate.
      * @return The tile coordinates.
      */
     public final C pointToCoord(Point2D point) {
-        return pointToCoord(point, getDimension(scale));
+        return pointToCoord(viewToMap(point, new Point2D.Double()), getDimension(scale));
     }
 
     /**
-     * Returns the point closest to the origin (0,0) for the tile at the specified coordinates.
+     * Returns the view point of the point closest to the origin (0,0) for the tile at the specified
+     * coordinates at the current scale and view transform.
      *
      * @param coord The coordinate who's origin point is desired.
-     * @return The point closest to the origin (0,0) for the tile at the specified coordinate.
+     * @return The view point of the point closest to the origin (0,0) for the tile at the specified
+     * coordinate.
      */
     public final Point2D coordToPoint(C coord) {
-        return coordToPoint(coord, getDimension(scale));
+        var point = coordToPoint(coord, getDimension(scale));
+
+        return mapToView(point, point);
     }
 
     /**
@@ -194,9 +841,7 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
         assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
         if (selection.add(tile)) {
             // repaint tile if added
-            var dim = getDimension(scale);
-            var origin = coordToPoint(tile.getCoord(), dim);
-            repaint((int) origin.getX(), (int) origin.getY(), (int) dim.getWidth(), (int) dim.getHeight());
+            markDirty(tile.getCoord());
         }
     }
 
@@ -209,9 +854,7 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
         assert isDispatchThread() : "Drawing on wrong thread " + Thread.currentThread();
         if (selection.remove(tile)) {
             // repaint tile if removed
-            var dim = getDimension(scale);
-            var origin = coordToPoint(tile.getCoord(), dim);
-            repaint((int) origin.getX(), (int) origin.getY(), (int) dim.getWidth(), (int) dim.getHeight());
+            markDirty(tile.getCoord());
         }
     }
 
@@ -233,12 +876,101 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
         boolean selectionChanged = !selection.equals(Objects.requireNonNull(replacement, "null replacement selection"));
 
         if (selectionChanged) {
+            // repaint only the tiles who's selection changed
+            selection.stream()
+                    .filter(tile -> !replacement.contains(tile))
+                    .forEach(tile -> markDirty(tile.getCoord()));
+            replacement.stream()
+                    .filter(tile -> !selection.contains(tile))
+                    .forEach(tile -> markDirty(tile.getCoord()));
+
             selection.clear();
             selection.addAll(replacement);
-            repaint();
         }
     }
 
+    /**
+     * Mark the tile at the specified coordinates as changed. Changed tiles are collected and repainted
+     * together, as a small number of regions, in the next frame. Tiles may be marked from any thread, such as
+     * the thread of a simulation which changes them; the repaint is always done on the event dispatch thread.
+     *
+     * @param coord The coordinates of the changed tile.
+     * @throws NullPointerException if the coordinates are null
+     */
+    public void markDirty(C coord) {
+        dirtyTiles.add(Objects.requireNonNull(coord, "null coord"));
+
+        if (dirtyRepaintPending.compareAndSet(false, true)) {
+            invokeLater(this::repaintDirty);
+        }
+    }
+
+    /**
+     * Repaint the regions covering the dirty tiles.
+     */
+    private void repaintDirty() {
+        // tiles marked from now on schedule another repaint
+        dirtyRepaintPending.set(false);
+        if (dirtyTiles.isEmpty()) {
+            return;
+        }
+
+        var dim = getDimension(scale);
+        int width = (int) Math.ceil(dim.getWidth()) + 2 * DIRTY_MARGIN;
+        int height = (int) Math.ceil(dim.getHeight()) + 2 * DIRTY_MARGIN;
+        var origin = new Point2D.Double();
+        List<Rectangle> regions = new ArrayList<>();
+        var bounds = new Rectangle();
+        for (var each = dirtyTiles.iterator(); each.hasNext();) {
+            var coord = each.next();
+            each.remove();
+            coordToPoint(coord, dim, origin);
+            bounds.setBounds(
+                    (int) Math.floor(origin.getX()) - DIRTY_MARGIN,
+                    (int) Math.floor(origin.getY()) - DIRTY_MARGIN,
+                    width, height);
+            mergeRegion(regions, viewTransform.createTransformedShape(bounds).getBounds());
+        }
+
+        regions.forEach(this::paintImmediately);
+    }
+
+    /**
+     * Add a region to the list of regions to be repainted. The region is merged with an existing region if
+     * doing so adds little area which is not in either region or if there are already too many regions.
+     *
+     * @param regions The regions to be repainted.
+     * @param region The region to add.
+     */
+    private static void mergeRegion(List<Rectangle> regions, Rectangle region) {
+        Rectangle best = null;
+        long bestGrowth = Long.MAX_VALUE;
+        for (var each : regions) {
+            var union = each.union(region);
+            long growth = area(union) - area(each) - area(region);
+            if (growth < bestGrowth) {
+                best = each;
+                bestGrowth = growth;
+            }
+        }
+
+        if ((null != best) && ((bestGrowth <= area(region)) || (regions.size() >= MAX_DIRTY_REGIONS))) {
+            best.add(region);
+        } else {
+            regions.add(region);
+        }
+    }
+
+    /**
+     * Returns the area of the rectangle.
+     *
+     * @param rect the rectangle.
+     * @return the area of the rectangle.
+     */
+    private static long area(Rectangle rect) {
+        return (long) rect.width * rect.height;
+    }
+
     /**
      * Returns {@code true} if the specified tile is selected.
      *
@@ -274,7 +1006,10 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
      * @param g2 the destination graphics environment for the drawing
      */
     protected void drawMap(Graphics2D g2) {
-        map.tiles().forEach(tile -> drawTile(g2, tile));
+        g2.setBackground(getBackground());
+        g2.setColor(getForeground());
+
+        renderer.drawMap(g2, getDimension(getScale()), this::isSelected);
     }
 
     /**
@@ -284,18 +1019,10 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
      * @param tile the tile to draw.
      */
     protected void drawTile(Graphics2D g, T tile) {
-        var coord = tile.getCoord();
-        var origin = coordToPoint(coord);
-        var dim = getDimension(getScale());
-
-        var currentclip = g.getClip();
-        if ((null == currentclip)
-                || currentclip.intersects(origin.getX(), origin.getY(), dim.getWidth(), dim.getHeight())) {
-            g.setBackground(getBackground());
-            g.setColor(getForeground());
+        g.setBackground(getBackground());
+        g.setColor(getForeground());
 
-            tile.draw(g, origin, dim, isSelected(tile));
-        }
+        renderer.drawTile(g, tile, getDimension(getScale()), isSelected(tile), new Point2D.Double());
     }
 
     /**
@@ -308,7 +1035,9 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
      * @return The coordinates of the tile for the specified point or
      * {@code null} if the point does not lie within a tile on the the map.
      */
-    public abstract C pointToCoord(Point2D point, D dim);
+    public C pointToCoord(Point2D point, D dim) {
+        return renderer.pointToCoord(point, dim);
+    }
 
     /**
      * Returns the point closest to the origin point for the tile at the
@@ -320,7 +1049,22 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
      * @return The point closest to the origin (0,0) for the tile at the
      * specified coordinate.
      */
-    public abstract Point2D coordToPoint(C coord, D dim);
+    public Point2D coordToPoint(C coord, D dim) {
+        return renderer.coordToPoint(coord, dim);
+    }
+
+    /**
+     * Sets the provided point to the point closest to the origin point for the tile at the specified
+     * coordinates.
+     *
+     * @param coord The coordinate who's origin point is desired.
+     * @param dim The tile dimensions to use when mapping from coordinates to a point.
+     * @param into The point to be set.
+     * @return The provided point.
+     */
+    public Point2D coordToPoint(C coord, D dim, Point2D into) {
+        return renderer.coordToPoint(coord, dim, into);
+    }
 
     /**
      * Returns the center point of the specified coordinate for the specified dimension.
@@ -332,10 +1076,6 @@ public abstract class TileMapView<M extends TileMap<T, C, D>, T extends Tile<C>
      * @return The point location.
      */
     public Point2D coordToCentroidPoint(C coord, D dim) {
-        var origin = coordToPoint(coord, dim);
-
-        origin.setLocation(origin.getX() + dim.getWidth() / 2, origin.getY() + dim.getHeight() / 2);
-
-        return origin;
+        return renderer.coordToCentroidPoint(coord, dim);
     }
 }
@@ -0,0 +1,330 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles;
+
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import javax.imageio.ImageIO;
+
+/**
+ * Exports a {@link TileMap map} as a "slippy map" pyramid of fixed size PNG images for use by browser map
+ * viewers. Each scale of the map is a zoom level, the first scale being zoom level 0, and each output image
+ * is written to {@code <z>/<x>/<y>.png} beneath the export directory.
+ *
+ * <p>Output images are rendered in parallel, in bounded batches, and only the map tiles which intersect an
+ * output image are drawn into it. The content hash of every output image is recorded in a manifest within
+ * the export directory and output images whose content is unchanged since the previous export are not
+ * rewritten. Output images of the previous export which are no longer part of the pyramid, because the map
+ * or the zoom levels are smaller, are deleted.
+ *
+ * @param <M> The class of the tile map.
+ * @param <T> The class of a tile in the map.
+ * @param <D> The class of a tile dimension.
+ * @param <C> The class of a tile coordinate.
+ */
+public class TilePyramidExporter<M extends TileMap<T, C, D>, T extends Tile<C> & TileView<D>, D extends TileDimension, C extends TileCoord> {
+
+    /**
+     * The default width and height of output images in pixels.
+     */
+    public static final int DEFAULT_TILE_SIZE = 256;
+    /**
+     * The name of the manifest file of content hashes.
+     */
+    public static final String MANIFEST = "manifest.properties";
+    /**
+     * The hash algorithm used for output image content.
+     */
+    private static final String HASH_ALGORITHM = "SHA-256";
+    /**
+     * The number of output images rendered concurrently for each thread of the pool. Output images are
+     * rendered in batches so that the pending work does not grow with the size of the pyramid.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+    /**
+     * The form of the names of output images within the manifest, {@code <z>/<x>/<y>}.
+     */
+    private static final Pattern IMAGE_NAME = Pattern.compile("\\d+/\\d+/\\d+");
+    /**
+     * The rasterizer used to render output images.
+     */
+    private final TileMapRasterizer<M, T, D, C> rasterizer;
+    /**
+     * The tile dimensions of each zoom level.
+     */
+    private final D scales[];
+    /**
+     * The width and height of output images in pixels.
+     */
+    private final int tileSize;
+    /**
+     * The pool on which output images are rendered.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Construct a new exporter which produces output images of the default size on the common fork-join pool.
+     *
+     * @param renderer The renderer used for drawing.
+     * @param scales The tile dimensions of each zoom level.
+     */
+    public TilePyramidExporter(TileMapRenderer<M, T, D, C> renderer, D scales[]) {
+        this(renderer, scales, DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construct a new exporter.
+     *
+     * @param renderer The renderer used for drawing.
+     * @param scales The tile dimensions of each zoom level.
+     * @param tileSize The width and height of output images in pixels.
+     * @param pool The pool on which output images are rendered.
+     * @throws IllegalArgumentException if there are no scales or the tile size is not positive.
+     */
+    public TilePyramidExporter(TileMapRenderer<M, T, D, C> renderer, D scales[], int tileSize, ForkJoinPool pool) {
+        if (scales.length == 0) {
+            throw new IllegalArgumentException("No scales");
+        }
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Invalid tile size: " + tileSize);
+        }
+        this.scales = scales.clone();
+        this.tileSize = tileSize;
+        this.pool = Objects.requireNonNull(pool, "Null pool");
+        this.rasterizer = new TileMapRasterizer<>(renderer, pool);
+    }
+
+    /**
+     * Returns the rasterizer used to render output images. The colors and font used for the export may be
+     * set on the rasterizer.
+     *
+     * @return the rasterizer used to render output images.
+     */
+    public TileMapRasterizer<M, T, D, C> getRasterizer() {
+        return rasterizer;
+    }
+
+    /**
+     * Export every zoom level of the map. Output images which are unchanged since the previous export to the
+     * same directory are not rewritten and output images of the previous export which are not part of this
+     * export are deleted.
+     *
+     * @param dir The export directory.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     * @return The number of output images written.
+     * @throws IOException for errors reading the manifest or writing or deleting output images.
+     */
+    public int export(Path dir, Predicate<? super T> highlighted) throws IOException {
+        Files.createDirectories(dir);
+        var manifestFile = dir.resolve(MANIFEST);
+        var previous = new Properties();
+        if (Files.exists(manifestFile)) {
+            try (Reader in = Files.newBufferedReader(manifestFile)) {
+                previous.load(in);
+            }
+        }
+
+        var manifest = new Properties();
+        var written = new AtomicInteger();
+        int batchSize = pool.getParallelism() * TASKS_PER_THREAD;
+        List<ForkJoinTask<?>> batch = new ArrayList<>(batchSize);
+        for (int z = 0; z < scales.length; z++) {
+            var dim = scales[z];
+            var size = rasterizer.getRenderer().getMapSize(dim);
+            int columns = (size.width + tileSize - 1) / tileSize;
+            int rows = (size.height + tileSize - 1) / tileSize;
+            for (int x = 0; x < columns; x++) {
+                for (int y = 0; y < rows; y++) {
+                    String name = z + "/" + x + "/" + y;
+                    var tile = dir.resolve(name + ".png");
+                    var origin = new Point2D.Double((double) x * tileSize, (double) y * tileSize);
+                    batch.add(pool.submit(() -> {
+                        if (exportTile(tile, origin, dim, highlighted, name, previous, manifest)) {
+                            written.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                    if (batch.size() == batchSize) {
+                        await(batch);
+                    }
+                }
+            }
+        }
+        await(batch);
+
+        var temp = Files.createTempFile(dir, MANIFEST, ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp)) {
+            manifest.store(out, "Content hashes of exported tiles");
+        }
+        Files.move(temp, manifestFile, REPLACE_EXISTING, ATOMIC_MOVE);
+
+        for (var name : previous.stringPropertyNames()) {
+            if (!manifest.containsKey(name) && IMAGE_NAME.matcher(name).matches()) {
+                deleteImage(dir, name);
+            }
+        }
+
+        return written.get();
+    }
+
+    /**
+     * Delete an output image of a previous export and then its column and zoom level directories if they
+     * are empty.
+     *
+     * @param dir The export directory.
+     * @param name The name of the output image, {@code <z>/<x>/<y>}.
+     * @throws IOException for errors deleting the output image.
+     */
+    private static void deleteImage(Path dir, String name) throws IOException {
+        var image = dir.resolve(name + ".png");
+        Files.deleteIfExists(image);
+        for (var parent = image.getParent(); !parent.equals(dir); parent = parent.getParent()) {
+            try {
+                Files.deleteIfExists(parent);
+            } catch (DirectoryNotEmptyException inUse) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Wait for a batch of output image tasks to complete and then clear the batch. If any task fails the
+     * remaining tasks are cancelled and the failure is thrown.
+     *
+     * @param batch The tasks to wait for.
+     * @throws IOException for errors writing output images.
+     */
+    private static void await(List<ForkJoinTask<?>> batch) throws IOException {
+        try {
+            for (var task : batch) {
+                try {
+                    task.get();
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Export interrupted");
+                } catch (ExecutionException failed) {
+                    var cause = failed.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            batch.forEach(each -> each.cancel(false));
+            batch.clear();
+        }
+    }
+
+    /**
+     * Render a single output image, record its content hash in the manifest and write it unless its content
+     * matches the previous export and the file exists.
+     *
+     * @param file The output image file.
+     * @param origin The point of the map which corresponds to the upper left corner of the output image.
+     * @param dim The tile dimensions to use for drawing.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     * @param name The name of the output image within the manifests.
+     * @param previous The manifest of the previous export.
+     * @param manifest The manifest of this export.
+     * @return {@code true} if the output image was written otherwise {@code false}.
+     * @throws IOException for errors writing the output image.
+     */
+    private boolean exportTile(Path file, Point2D origin, D dim, Predicate<? super T> highlighted, String name,
+            Properties previous, Properties manifest) throws IOException {
+        var image = new BufferedImage(tileSize, tileSize, TYPE_INT_ARGB);
+        rasterizer.rasterize(image, origin, dim, highlighted);
+
+        var hash = contentHash(image);
+        manifest.setProperty(name, hash);
+        if (hash.equals(previous.getProperty(name)) && Files.exists(file)) {
+            return false;
+        }
+
+        Files.createDirectories(file.getParent());
+        var temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (var out = Files.newOutputStream(temp)) {
+                ImageIO.write(image, "png", out);
+            }
+            Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the hash of the pixels of an image.
+     *
+     * @param image The image, which must be of type {@link BufferedImage#TYPE_INT_ARGB}.
+     * @return The hash of the pixels as a hex string.
+     */
+    private static String contentHash(BufferedImage image) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException missing) {
+            throw new IllegalStateException(HASH_ALGORITHM + " unavailable", missing);
+        }
+
+        int pixels[] = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        var bytes = ByteBuffer.allocate(pixels.length * Integer.BYTES);
+        bytes.asIntBuffer().put(pixels);
+        digest.update(bytes);
+
+        var hex = new StringBuilder();
+        for (byte each : digest.digest()) {
+            hex.append(Character.forDigit((each >> 4) & 0xF, 16)).append(Character.forDigit(each & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -21,6 +21,7 @@
  */
 package org.bondolo.tiles;
 
+import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.geom.Point2D;
 
@@ -40,4 +41,92 @@ public interface TileView<D extends TileDimension> {
      * @param highlight Draw the tile highlighted.
      */
     void draw(Graphics2D g2, Point2D origin, D dim, boolean highlight);
+
+    /**
+     * Returns a key which identifies the style of the tile. All tiles with equal style keys draw identically,
+     * relative to their origin, with {@link #drawStyle(Graphics2D, Point2D, TileDimension, boolean)
+     * drawStyle} and may share a single pre-rendered image of their style.
+     *
+     * @implSpec The default implementation returns {@code null}.
+     *
+     * @return The style key for the tile or {@code null} if the tile has no shared style.
+     */
+    default Object getStyleKey() {
+        return null;
+    }
+
+    /**
+     * Draw the portion of the tile identified by its {@link #getStyleKey() style key}. Drawing the style
+     * followed by the {@link #drawDetail(Graphics2D, Point2D, TileDimension, boolean) detail} is equivalent to
+     * {@link #draw(Graphics2D, Point2D, TileDimension, boolean) drawing} the tile.
+     *
+     * @implSpec The default implementation draws the entire tile.
+     *
+     * @param g2 The graphics environment to draw into.
+     * @param origin The origin point at which to draw the tile.
+     * @param dim The scaling dimensions to use for tile drawing.
+     * @param highlight Draw the tile highlighted.
+     */
+    default void drawStyle(Graphics2D g2, Point2D origin, D dim, boolean highlight) {
+        draw(g2, origin, dim, highlight);
+    }
+
+    /**
+     * Draw the portion of the tile which is particular to this tile and not part of its style.
+     *
+     * @implSpec The default implementation draws nothing.
+     *
+     * @param g2 The graphics environment to draw into.
+     * @param origin The origin point at which to draw the tile.
+     * @param dim The scaling dimensions to use for tile drawing.
+     * @param highlight Draw the tile highlighted.
+     */
+    default void drawDetail(Graphics2D g2, Point2D origin, D dim, boolean highlight) {
+    }
+
+    /**
+     * Draw the tile as a filled shape without its outline or detail. Used for scales at which outlines and
+     * detail could not be seen.
+     *
+     * @implSpec The default implementation draws the style of the tile.
+     *
+     * @param g2 The graphics environment to draw into.
+     * @param origin The origin point at which to draw the tile.
+     * @param dim The scaling dimensions to use for tile drawing.
+     * @param highlight Draw the tile highlighted.
+     */
+    default void drawFill(Graphics2D g2, Point2D origin, D dim, boolean highlight) {
+        drawStyle(g2, origin, dim, highlight);
+    }
+
+    /**
+     * Returns a single color which summarizes the appearance of the tile. Used when several tiles are
+     * aggregated into one block at scales where individual tiles could not be seen.
+     *
+     * @implSpec The default implementation returns {@code null}.
+     *
+     * @param highlight Return the color of the highlighted tile.
+     * @return The color of the tile or {@code null} if the tile would not be visible.
+     */
+    default Color getFillColor(boolean highlight) {
+        return null;
+    }
+
+    /**
+     * Add the {@link #drawStyle(Graphics2D, Point2D, TileDimension, boolean) style} of the tile to a batch of
+     * primitives which are drawn together with those of other tiles. If the style is batched then the
+     * {@link #drawDetail(Graphics2D, Point2D, TileDimension, boolean) detail} is drawn individually after the
+     * batch, otherwise the entire tile is drawn individually.
+     *
+     * @implSpec The default implementation does not batch the style and returns {@code false}.
+     *
+     * @param batch The batch to which the style is added.
+     * @param origin The origin point at which to draw the tile.
+     * @param dim The scaling dimensions to use for tile drawing.
+     * @param highlight Draw the tile highlighted.
+     * @return {@code true} if the style was added to the batch.
+     */
+    default boolean batch(TileBatch batch, Point2D origin, D dim, boolean highlight) {
+        return false;
+    }
 }
@@ -0,0 +1,605 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.grid;
+
+import org.bondolo.tiles.*;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A sparse and effectively unbounded map of grid tiles, including tiles at negative coordinates. Tiles are
+ * stored in square chunks of {@value #CHUNK_SIZE} by {@value #CHUNK_SIZE} tiles which are allocated when a
+ * tile within them is first {@link #setTile(GridTile) set}. Locations for which no tile has been set are
+ * served tiles created by the template factory, so memory use scales with the area which has been written
+ * rather than with the bounds of the map. The location {@code (Integer.MIN_VALUE, 0)} is reserved because
+ * its packed coordinate is {@link GridTileCoord#NO_COORD}; no tile may be set there.
+ *
+ * <p>
+ * A map may be bounded to a number of chunks resident in memory. When the bound is exceeded chunks which
+ * have not been accessed recently are written to the spill directory using the tile codec and are read back
+ * when next accessed. Tiles which are modified in place should be set again so that chunks are not spilled
+ * while a tile is being modified. Errors writing or reading spilled chunks are thrown as
+ * {@link UncheckedIOException}.
+ *
+ * <p>
+ * Maps are safe for use by multiple threads. Tiles of resident chunks are retrieved without locking. Each
+ * chunk is locked while a tile is set within it and while it is spilled or read back, so spilling a chunk
+ * delays only access to that chunk. While chunks are being spilled by another thread the number of
+ * resident chunks may briefly exceed the bound. Streams of tiles are weakly consistent.
+ *
+ * @param <T> Class of tiles in this map.
+ * @param <C> Class of tile coordinates in this map.
+ * @param <D> Class of tile dimensions in this map.
+ */
+public class ChunkedTileMap<T extends GridTile<C, D>, C extends GridTileCoord, D extends GridTileDimension> implements TileMap<T, C, D> {
+
+    /**
+     * Number of bits of a coordinate which select a tile within a chunk.
+     */
+    public static final int CHUNK_SHIFT = 6;
+
+    /**
+     * Horizontal and vertical size of a chunk.
+     */
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /**
+     * Mask of the bits of a coordinate which select a tile within a chunk.
+     */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Number of tiles in a chunk.
+     */
+    private static final int CHUNK_AREA = CHUNK_SIZE * CHUNK_SIZE;
+
+    /**
+     * Initial number of slots in the chunk directory.
+     */
+    private static final int INITIAL_SLOTS = 64;
+
+    /**
+     * Access to the slots of the chunk directory.
+     */
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Chunk[].class);
+
+    /**
+     * Access to the tiles of a chunk.
+     */
+    private static final VarHandle TILES = MethodHandles.arrayElementVarHandle(GridTile[].class);
+
+    /**
+     * Creates the tiles for locations at which no tile has been set.
+     */
+    private final TileFactory<? extends T> template;
+
+    /**
+     * Every chunk which has been allocated, resident or spilled, in an open addressed hash table of at most
+     * half occupancy. Chunks are never removed so slots are only ever filled. A new table is published when
+     * the table is grown.
+     */
+    private volatile Chunk<T>[] directory;
+
+    /**
+     * The number of chunks in the directory.
+     */
+    private volatile int chunkCount;
+
+    /**
+     * Guards the addition of chunks to the directory.
+     */
+    private final Object directoryLock = new Object();
+
+    /**
+     * The resident chunks in the order in which they will be considered for spilling.
+     */
+    private final ConcurrentLinkedQueue<Chunk<T>> resident = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of resident chunks.
+     */
+    private final AtomicInteger residentCount = new AtomicInteger();
+
+    /**
+     * Held by the thread which is spilling chunks.
+     */
+    private final ReentrantLock evicting = new ReentrantLock();
+
+    /**
+     * Maximum number of chunks resident in memory.
+     */
+    private final int maxResident;
+
+    /**
+     * Directory to which chunks are spilled or null if the map is not bounded.
+     */
+    private final Path spillDirectory;
+
+    /**
+     * Writes and reads the tiles of spilled chunks or null if the map is not bounded.
+     */
+    private final TileCodec<T> codec;
+
+    /**
+     * Construct a new map whose chunks are all kept in memory.
+     *
+     * @param template Creates the tiles for locations at which no tile has been set.
+     * @throws NullPointerException if the template is null.
+     */
+    public ChunkedTileMap(TileFactory<? extends T> template) {
+        this.template = Objects.requireNonNull(template, "Null template");
+        this.maxResident = Integer.MAX_VALUE;
+        this.spillDirectory = null;
+        this.codec = null;
+        this.directory = newDirectory(INITIAL_SLOTS);
+    }
+
+    /**
+     * Construct a new map which keeps at most the specified number of chunks in memory and spills the
+     * remainder to files in a directory.
+     *
+     * @param template Creates the tiles for locations at which no tile has been set.
+     * @param maxResidentChunks The maximum number of chunks resident in memory.
+     * @param spillDirectory The existing directory to which chunks are spilled.
+     * @param codec Writes and reads the tiles of spilled chunks.
+     * @throws IllegalArgumentException if the maximum number of chunks is not positive.
+     * @throws NullPointerException if any of the parameters are null.
+     */
+    public ChunkedTileMap(TileFactory<? extends T> template, int maxResidentChunks, Path spillDirectory,
+            TileCodec<T> codec) {
+        if (maxResidentChunks <= 0) {
+            throw new IllegalArgumentException("Invalid maximum resident chunks: " + maxResidentChunks);
+        }
+        this.template = Objects.requireNonNull(template, "Null template");
+        this.maxResident = maxResidentChunks;
+        this.spillDirectory = Objects.requireNonNull(spillDirectory, "Null spill directory");
+        this.codec = Objects.requireNonNull(codec, "Null codec");
+        this.directory = newDirectory(INITIAL_SLOTS);
+    }
+
+    /**
+     * Retrieve the tile at the specified location. If no tile has been set at the location then a tile
+     * created by the template is returned.
+     *
+     * @param x The horizontal index of the requested tile.
+     * @param y The vertical index of the requested tile.
+     * @return The tile.
+     */
+    public T getTile(int x, int y) {
+        var chunk = find(GridTileCoord.pack(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT));
+        T tile = null;
+        if (null != chunk) {
+            @SuppressWarnings("unchecked")
+            T found = (T) TILES.getAcquire(tilesOf(chunk), indexOf(x, y));
+            tile = found;
+        }
+
+        return (null == tile) ? template.create(x, y) : tile;
+    }
+
+    /**
+     * Retrieve the tile associated with the specified packed coordinate.
+     *
+     * @param coord The packed coordinate of the requested tile.
+     * @return The tile.
+     * @throws IllegalArgumentException if the coordinate is {@link GridTileCoord#NO_COORD}.
+     * @see GridTileCoord#pack(int, int)
+     */
+    public T getTile(long coord) {
+        if (GridTileCoord.NO_COORD == coord) {
+            throw new IllegalArgumentException("NO_COORD is not a tile location");
+        }
+
+        return getTile(GridTileCoord.unpackX(coord), GridTileCoord.unpackY(coord));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Every coordinate is within the map so the result is never empty.
+     */
+    @Override
+    public Optional<T> getTile(C forLoc) {
+        return Optional.of(getTile(forLoc.getX(), forLoc.getY()));
+    }
+
+    /**
+     * Set the tile at the location of its coordinate, allocating the chunk containing it if necessary.
+     *
+     * @param tile The tile.
+     * @throws NullPointerException if the tile is null.
+     * @throws IllegalArgumentException if the tile is at the reserved location.
+     */
+    public void setTile(T tile) {
+        var coord = tile.getCoord();
+        if (GridTileCoord.NO_COORD == coord.pack()) {
+            throw new IllegalArgumentException("Location " + coord + " is reserved");
+        }
+        int x = coord.getX();
+        int y = coord.getY();
+
+        var chunk = findOrAllocate(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        synchronized (chunk) {
+            TILES.setRelease(load(chunk), indexOf(x, y), tile);
+        }
+        chunk.referenced = true;
+        evict();
+    }
+
+    /**
+     * Returns the number of chunks which have been allocated, including those which have been spilled.
+     *
+     * @return The number of chunks which have been allocated.
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Returns the number of chunks which are resident in memory.
+     *
+     * @return The number of chunks which are resident in memory.
+     */
+    public int getResidentChunkCount() {
+        return residentCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the tiles which have been set, chunk by chunk. Spilled chunks are read back as
+     * they are reached.
+     */
+    @Override
+    public Stream<T> tiles() {
+        return Arrays.stream(directory)
+                .filter(Objects::nonNull)
+                .flatMap(chunk -> {
+                    var tiles = tilesOf(chunk);
+                    return IntStream.range(0, CHUNK_AREA).mapToObj(index -> {
+                        @SuppressWarnings("unchecked")
+                        T tile = (T) TILES.getAcquire(tiles, index);
+                        return tile;
+                    }).filter(Objects::nonNull);
+                });
+    }
+
+    /**
+     * Returns a stream of the tiles within the specified rectangular range of coordinates, column by column.
+     * Locations at which no tile has been set are served tiles created by the template.
+     *
+     * @param fromX The lowest horizontal index, inclusive.
+     * @param fromY The lowest vertical index, inclusive.
+     * @param toX The highest horizontal index, exclusive.
+     * @param toY The highest vertical index, exclusive.
+     * @return a stream of the tiles within the range.
+     */
+    public Stream<T> tiles(int fromX, int fromY, int toX, int toY) {
+        return IntStream.range(fromX, toX)
+                .boxed()
+                .flatMap(x -> IntStream.range(fromY, toY).mapToObj(y -> getTile(x, y)));
+    }
+
+    /**
+     * Returns the index within a chunk of the tile at the specified location.
+     *
+     * @param x The horizontal index of the tile.
+     * @param y The vertical index of the tile.
+     * @return The index within the chunk.
+     */
+    private static int indexOf(int x, int y) {
+        return ((x & CHUNK_MASK) << CHUNK_SHIFT) | (y & CHUNK_MASK);
+    }
+
+    /**
+     * Returns the first directory slot probed for a packed chunk coordinate.
+     *
+     * @param key The packed chunk coordinate.
+     * @param mask The mask of the directory slot indexes.
+     * @return The slot index.
+     */
+    private static int slotOf(long key, int mask) {
+        return (int) ((key * 0x9E37_79B9_7F4A_7C15L) >>> 32) & mask;
+    }
+
+    /**
+     * Create an empty chunk directory.
+     *
+     * @param <T> Class of tiles in the chunks.
+     * @param slots The number of slots, a power of two.
+     * @return The directory.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Chunk<T>[] newDirectory(int slots) {
+        return (Chunk<T>[]) new Chunk<?>[slots];
+    }
+
+    /**
+     * Returns the chunk at the packed chunk coordinate if it has been allocated.
+     *
+     * @param key The packed chunk coordinate.
+     * @return The chunk or null if it has not been allocated.
+     */
+    private Chunk<T> find(long key) {
+        var slots = directory;
+        int mask = slots.length - 1;
+        for (int slot = slotOf(key, mask);; slot = (slot + 1) & mask) {
+            @SuppressWarnings("unchecked")
+            var chunk = (Chunk<T>) SLOTS.getAcquire(slots, slot);
+            if ((null == chunk) || (key == chunk.key)) {
+                return chunk;
+            }
+        }
+    }
+
+    /**
+     * Returns the chunk at the specified chunk coordinate, allocating it if it has not been allocated.
+     *
+     * @param chunkX The horizontal index of the chunk.
+     * @param chunkY The vertical index of the chunk.
+     * @return The chunk.
+     */
+    private Chunk<T> findOrAllocate(int chunkX, int chunkY) {
+        long key = GridTileCoord.pack(chunkX, chunkY);
+        var chunk = find(key);
+        if (null != chunk) {
+            return chunk;
+        }
+
+        synchronized (directoryLock) {
+            chunk = find(key);
+            if (null == chunk) {
+                @SuppressWarnings("unchecked")
+                var tiles = (T[]) new GridTile<?, ?>[CHUNK_AREA];
+                chunk = new Chunk<>(key, chunkX, chunkY, tiles);
+
+                var slots = directory;
+                if (2 * (chunkCount + 1) > slots.length) {
+                    Chunk<T>[] grown = newDirectory(2 * slots.length);
+                    for (var each : slots) {
+                        if (null != each) {
+                            insert(grown, each);
+                        }
+                    }
+                    directory = grown;
+                    slots = grown;
+                }
+                insert(slots, chunk);
+                chunkCount++;
+                residentCount.incrementAndGet();
+                resident.add(chunk);
+            }
+        }
+        evict();
+
+        return chunk;
+    }
+
+    /**
+     * Add a chunk to a directory which does not contain it.
+     *
+     * @param slots The directory.
+     * @param chunk The chunk.
+     */
+    private static <T> void insert(Chunk<T>[] slots, Chunk<T> chunk) {
+        int mask = slots.length - 1;
+        int slot = slotOf(chunk.key, mask);
+        while (null != slots[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        SLOTS.setRelease(slots, slot, chunk);
+    }
+
+    /**
+     * Returns the tiles of a chunk, reading the chunk back if it was spilled, and notes the access.
+     *
+     * @param chunk The chunk.
+     * @return The tiles of the chunk.
+     */
+    private T[] tilesOf(Chunk<T> chunk) {
+        var tiles = chunk.tiles;
+        if (null == tiles) {
+            synchronized (chunk) {
+                tiles = load(chunk);
+            }
+            chunk.referenced = true;
+            evict();
+        } else if (!chunk.referenced) {
+            chunk.referenced = true;
+        }
+
+        return tiles;
+    }
+
+    /**
+     * Returns the tiles of a chunk, reading the chunk back if it was spilled. The caller must hold the lock
+     * of the chunk.
+     *
+     * @param chunk The chunk.
+     * @return The tiles of the chunk.
+     */
+    private T[] load(Chunk<T> chunk) {
+        var tiles = chunk.tiles;
+        if (null == tiles) {
+            tiles = read(chunk.chunkX, chunk.chunkY);
+            chunk.tiles = tiles;
+            residentCount.incrementAndGet();
+            resident.add(chunk);
+        }
+
+        return tiles;
+    }
+
+    /**
+     * Spill chunks which have not been accessed recently until no more than the maximum number of chunks
+     * are resident. Chunks are considered in turn and a chunk which has been accessed since it was last
+     * considered is given another turn. Only one thread spills at a time; other threads do not wait.
+     */
+    private void evict() {
+        if ((residentCount.get() <= maxResident) || !evicting.tryLock()) {
+            return;
+        }
+
+        try {
+            while (residentCount.get() > maxResident) {
+                var chunk = resident.poll();
+                if (null == chunk) {
+                    break;
+                }
+                if (chunk.referenced) {
+                    chunk.referenced = false;
+                    resident.add(chunk);
+                    continue;
+                }
+
+                synchronized (chunk) {
+                    write(chunk.chunkX, chunk.chunkY, chunk.tiles);
+                    chunk.tiles = null;
+                }
+                residentCount.decrementAndGet();
+            }
+        } finally {
+            evicting.unlock();
+        }
+    }
+
+    /**
+     * Returns the file to which the specified chunk is spilled.
+     *
+     * @param chunkX The horizontal index of the chunk.
+     * @param chunkY The vertical index of the chunk.
+     * @return The file.
+     */
+    private Path spillFile(int chunkX, int chunkY) {
+        return spillDirectory.resolve(chunkX + "_" + chunkY + ".chunk");
+    }
+
+    /**
+     * Write a chunk to its spill file. Each location is written as a flag indicating whether a tile has been
+     * set followed by the state of the tile.
+     *
+     * @param chunkX The horizontal index of the chunk.
+     * @param chunkY The vertical index of the chunk.
+     * @param chunk The tiles of the chunk.
+     */
+    private void write(int chunkX, int chunkY, T[] chunk) {
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile(chunkX, chunkY))))) {
+            for (var tile : chunk) {
+                out.writeBoolean(null != tile);
+                if (null != tile) {
+                    codec.write(tile, out);
+                }
+            }
+        } catch (IOException failed) {
+            throw new UncheckedIOException("Failed to spill chunk " + chunkX + "," + chunkY, failed);
+        }
+    }
+
+    /**
+     * Read a chunk back from its spill file.
+     *
+     * @param chunkX The horizontal index of the chunk.
+     * @param chunkY The vertical index of the chunk.
+     * @return The tiles of the chunk.
+     */
+    private T[] read(int chunkX, int chunkY) {
+        @SuppressWarnings("unchecked")
+        var chunk = (T[]) new GridTile<?, ?>[CHUNK_AREA];
+        var file = spillFile(chunkX, chunkY);
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            for (int index = 0; index < CHUNK_AREA; index++) {
+                if (in.readBoolean()) {
+                    chunk[index] = codec.read((chunkX << CHUNK_SHIFT) | (index >> CHUNK_SHIFT),
+                            (chunkY << CHUNK_SHIFT) | (index & CHUNK_MASK), in);
+                }
+            }
+        } catch (IOException failed) {
+            throw new UncheckedIOException("Failed to read spilled chunk " + chunkX + "," + chunkY, failed);
+        }
+
+        try {
+            Files.delete(file);
+        } catch (IOException failed) {
+            throw new UncheckedIOException("Failed to remove spilled chunk " + chunkX + "," + chunkY, failed);
+        }
+
+        return chunk;
+    }
+
+    /**
+     * A chunk of tiles, which is either resident or spilled.
+     *
+     * @param <T> Class of tiles in the chunk.
+     */
+    private static final class Chunk<T> {
+
+        /**
+         * The packed chunk coordinate.
+         */
+        final long key;
+
+        /**
+         * The horizontal index of the chunk.
+         */
+        final int chunkX;
+
+        /**
+         * The vertical index of the chunk.
+         */
+        final int chunkY;
+
+        /**
+         * The tiles of the chunk, column by column and null where no tile has been set, or null if the chunk
+         * is spilled. Changed only while holding the lock of the chunk.
+         */
+        volatile T[] tiles;
+
+        /**
+         * Set when the chunk is accessed and cleared when the chunk is considered for spilling. Updates may be
+         * lost as the flag only approximates recency.
+         */
+        boolean referenced = true;
+
+        Chunk(long key, int chunkX, int chunkY, T[] tiles) {
+            this.key = key;
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.tiles = tiles;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.grid;
+
+import static org.bondolo.tiles.grid.GridTileCoord.NO_COORD;
+import static org.bondolo.tiles.grid.GridTileCoord.pack;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.bondolo.tiles.TileMapRenderer;
+
+/**
+ * Renders a Cartesian grid map of tiles. Coordinates may be mapped to and from points without allocation
+ * using {@link GridTileCoord#pack(int, int) packed} coordinates.
+ *
+ * @param <M> The class of the tile map.
+ * @param <T> The class of a tile in the map.
+ * @param <D> The class of a tile dimension.
+ * @param <C> The class of a tile coordinate.
+ */
+public abstract class GridMapRenderer<M extends GridTileMap<T, C, D>, T extends GridTile<C, D>, D extends GridTileDimension, C extends GridTileCoord> extends TileMapRenderer<M, T, D, C> {
+
+    /**
+     * The smallest width and height in pixels of a block of aggregated tiles.
+     */
+    private static final double MIN_BLOCK_SIZE = 4.0;
+
+    /**
+     * The number of tiles sampled along each axis of a block to choose its color.
+     */
+    private static final int BLOCK_SAMPLES = 2;
+
+    /**
+     * Construct a new map renderer.
+     *
+     * @param map The map to be rendered.
+     */
+    protected GridMapRenderer(M map) {
+        super(map);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the coordinates of the map tile found via
+     * {@link #pointToCoordPacked(double, double, GridTileDimension)}.
+     */
+    @Override
+    public C pointToCoord(Point2D point, D dim) {
+        long coord = pointToCoordPacked(point.getX(), point.getY(), dim);
+
+        return (NO_COORD == coord)
+                ? null
+                : map.getTile(coord).getCoord();
+    }
+
+    @Override
+    public Point2D coordToPoint(C coord, D dim) {
+        return coordToPoint(coord.pack(), dim, new Point2D.Double());
+    }
+
+    @Override
+    public Point2D coordToPoint(C coord, D dim, Point2D into) {
+        return coordToPoint(coord.pack(), dim, into);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the tiles within the range of coordinates returned by
+     * {@link #visibleRange(Rectangle2D, GridTileDimension)}.
+     */
+    @Override
+    public Stream<T> visibleTiles(Rectangle2D area, D dim) {
+        var range = visibleRange(area, dim);
+
+        return map.tiles(range[0], range[1], range[2], range[3]);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Aggregates square ranges of coordinates into blocks at least {@link #MIN_BLOCK_SIZE} device
+     * pixels across. The color of each block is chosen from a lattice of at most {@value #BLOCK_SAMPLES} by
+     * {@value #BLOCK_SAMPLES} sampled tiles, so the cost is proportional to the number of blocks rather than
+     * the number of tiles. Each block is filled with the highlighted fill color of its first highlighted
+     * sample or otherwise the fill color of its first sample which has one. Blocks are aligned on multiples
+     * of the block span so that they do not change as the clip moves. Every tile within a block is counted as
+     * visited and, if the block is filled, as drawn.
+     */
+    @Override
+    protected void drawBlocks(Graphics2D g2, D dim, Predicate<? super T> highlighted, long counts[]) {
+        int xSize = map.getXSize();
+        int ySize = map.getYSize();
+        int fromX = 0;
+        int fromY = 0;
+        int toX = xSize;
+        int toY = ySize;
+        var clip = g2.getClipBounds();
+        if (null != clip) {
+            var range = visibleRange(clip, dim);
+            fromX = Math.max(range[0], 0);
+            fromY = Math.max(range[1], 0);
+            toX = Math.min(range[2], xSize);
+            toY = Math.min(range[3], ySize);
+        }
+
+        int span = (int) Math.ceil(MIN_BLOCK_SIZE / (Math.min(dim.getWidth(), dim.getHeight()) * scaleOf(g2)));
+        int stride = Math.max(1, (span + BLOCK_SAMPLES - 1) / BLOCK_SAMPLES);
+        fromX -= fromX % span;
+        fromY -= fromY % span;
+
+        var foreground = g2.getColor();
+        var corner = new Point2D.Double();
+        for (int blockX = fromX; blockX < toX; blockX += span) {
+            int endX = Math.min(blockX + span, xSize);
+            int left = (int) Math.floor(coordToPoint(pack(blockX, 0), dim, corner).getX());
+            int right = (int) Math.ceil(coordToPoint(pack(endX, 0), dim, corner).getX());
+            for (int blockY = fromY; blockY < toY; blockY += span) {
+                int endY = Math.min(blockY + span, ySize);
+                var fill = blockColor(blockX, blockY, endX, endY, stride, highlighted);
+                long tiles = (long) (endX - blockX) * (endY - blockY);
+                counts[VISITED] += tiles;
+                if (null != fill) {
+                    counts[DRAWN] += tiles;
+                    int top = (int) Math.floor(coordToPoint(pack(0, blockY), dim, corner).getY());
+                    int bottom = (int) Math.ceil(coordToPoint(pack(0, endY), dim, corner).getY());
+
+                    g2.setColor(fill);
+                    g2.fillRect(left, top, right - left, bottom - top);
+                }
+            }
+        }
+        g2.setColor(foreground);
+    }
+
+    /**
+     * Returns the color with which to fill a block of tiles, sampling the tiles of the block.
+     *
+     * @param fromX The first column of the block.
+     * @param fromY The first row of the block.
+     * @param toX The column following the last column of the block.
+     * @param toY The row following the last row of the block.
+     * @param stride The distance between sampled tiles along each axis.
+     * @param highlighted Selects the tiles which are drawn highlighted.
+     * @return The fill color of the block or {@code null} if the block is not drawn.
+     */
+    private Color blockColor(int fromX, int fromY, int toX, int toY, int stride, Predicate<? super T> highlighted) {
+        Color fill = null;
+        for (int x = fromX; x < toX; x += stride) {
+            for (int y = fromY; y < toY; y += stride) {
+                var tile = map.getTile(x, y);
+                if (highlighted.test(tile)) {
+                    var highlight = tile.getFillColor(true);
+                    if (null != highlight) {
+                        return highlight;
+                    }
+                } else if (null == fill) {
+                    fill = tile.getFillColor(false);
+                }
+            }
+        }
+
+        return fill;
+    }
+
+    /**
+     * Returns the rectangular range of coordinates of the tiles which may be visible within the specified
+     * area. The range may include tiles which lie outside of the area and may extend beyond the bounds of the
+     * map.
+     *
+     * @param area The area who's tiles are desired.
+     * @param dim The tile dimensions to use when mapping from the area to coordinates.
+     * @return The range as {@code fromX, fromY, toX, toY} with the lower bounds inclusive and the upper bounds
+     * exclusive.
+     */
+    public abstract int[] visibleRange(Rectangle2D area, D dim);
+
+    /**
+     * Return the packed coordinate associated with the specified point considering the provided dimensions.
+     *
+     * @param x The horizontal pixel position to translate.
+     * @param y The vertical pixel position to translate.
+     * @param dim The tile dimensions to use when mapping from point to coordinate.
+     * @return The packed coordinates of the tile for the specified point or {@link GridTileCoord#NO_COORD}
+     * if the point does not lie within a tile on the the map.
+     */
+    public abstract long pointToCoordPacked(double x, double y, D dim);
+
+    /**
+     * Sets the provided point to the point closest to the origin point for the tile at the specified packed
+     * coordinates.
+     *
+     * @param coord The packed coordinate who's origin point is desired.
+     * @param dim The tile dimensions to use when mapping from coordinates to a point.
+     * @param into The point to be set.
+     * @return The provided point.
+     */
+    public abstract Point2D coordToPoint(long coord, D dim, Point2D into);
+}
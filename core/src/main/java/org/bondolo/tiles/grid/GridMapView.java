@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.grid;
+
+import java.awt.geom.Point2D;
+import org.bondolo.tiles.TileMapView;
+
+/**
+ * A view onto a Cartesian grid map of tiles. Coordinates may be mapped to and from points without
+ * allocation using {@link GridTileCoord#pack(int, int) packed} coordinates.
+ *
+ * @param <M> The class of the tile map.
+ * @param <T> The class of a tile in the map.
+ * @param <D> The class of a tile dimension.
+ * @param <C> The class of a tile coordinate.
+ */
+@SuppressWarnings("serial")
+public abstract class GridMapView<M extends GridTileMap<T, C, D>, T extends GridTile<C, D>, D extends GridTileDimension, C extends GridTileCoord> extends TileMapView<M, T, D, C> {
+
+    /**
+     * The renderer for this view.
+     */
+    private final GridMapRenderer<M, T, D, C> renderer;
+
+    /**
+     * Construct a new map view.
+     *
+     * @param renderer The renderer for the map of this view.
+     * @param scales The tile dimensions (scales) defined for this view.
+     * @param initialScale The initial scale value to use for this view.
+     */
+    protected GridMapView(GridMapRenderer<M, T, D, C> renderer, final D scales[], int initialScale) {
+        super(renderer, scales, initialScale);
+        this.renderer = renderer;
+    }
+
+    @Override
+    public GridMapRenderer<M, T, D, C> getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Return the packed tile coordinate associated with the specified view point at the current scale and
+     * view transform.
+     *
+     * @param x The horizontal pixel position within the view to translate.
+     * @param y The vertical pixel position within the view to translate.
+     * @return The packed tile coordinates or {@link GridTileCoord#NO_COORD} if the point does not lie within
+     * a tile on the map.
+     */
+    public final long pointToCoordPacked(double x, double y) {
+        return pointToCoordPacked(viewToMapX(x, y), viewToMapY(x, y), getDimension(getScale()));
+    }
+
+    /**
+     * Sets the provided point to the view point of the point closest to the origin (0,0) for the tile at the
+     * specified packed coordinates at the current scale and view transform.
+     *
+     * @param coord The packed coordinate who's origin point is desired.
+     * @param into The point to be set.
+     * @return The provided point.
+     */
+    public final Point2D coordToPoint(long coord, Point2D into) {
+        return mapToView(coordToPoint(coord, getDimension(getScale()), into), into);
+    }
+
+    /**
+     * Return the packed coordinate associated with the specified point considering the provided dimensions.
+     *
+     * @param x The horizontal pixel position to translate.
+     * @param y The vertical pixel position to translate.
+     * @param dim The tile dimensions to use when mapping from point to coordinate.
+     * @return The packed coordinates of the tile for the specified point or {@link GridTileCoord#NO_COORD}
+     * if the point does not lie within a tile on the the map.
+     */
+    public long pointToCoordPacked(double x, double y, D dim) {
+        return renderer.pointToCoordPacked(x, y, dim);
+    }
+
+    /**
+     * Sets the provided point to the point closest to the origin point for the tile at the specified packed
+     * coordinates.
+     *
+     * @param coord The packed coordinate who's origin point is desired.
+     * @param dim The tile dimensions to use when mapping from coordinates to a point.
+     * @param into The point to be set.
+     * @return The provided point.
+     */
+    public Point2D coordToPoint(long coord, D dim, Point2D into) {
+        return renderer.coordToPoint(coord, dim, into);
+    }
+}
@@ -22,7 +22,6 @@
 package org.bondolo.tiles.grid;
 
 import org.bondolo.tiles.*;
-import static java.awt.Font.BOLD;
 import java.awt.Graphics2D;
 import java.awt.geom.Point2D;
 import java.util.Objects;
@@ -45,6 +44,11 @@ public abstract class GridTile<C extends GridTileCoord, D extends GridTileDimens
      */
     protected final String label;
 
+    /**
+     * The label text as most recently measured for drawing.
+     */
+    private MeasuredLabel measured;
+
     /**
      * Construct a new grid tile.
      *
@@ -102,18 +106,89 @@ public abstract class GridTile<C extends GridTileCoord, D extends GridTileDimens
      */
     @Override
     public void draw(Graphics2D g2, Point2D origin, D dim, boolean highlight) {
-        var drawing = toString();
-        // XXX This is too much work to be doing for each tile
-        var font = g2.getFont().deriveFont((float)(dim.side / 3.0));
-        if(highlight) {
-            font = font.deriveFont(BOLD);
-        }
-        g2.setFont(font);
+        drawLabel(g2, origin, dim, highlight);
+    }
 
-        var fm = g2.getFontMetrics();
-        double drawx = origin.getX() + (dim.getWidth() - fm.stringWidth(drawing)) / 2.0;
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Draws the tile coordinates string centered in the tile.
+     */
+    @Override
+    public void drawDetail(Graphics2D g2, Point2D origin, D dim, boolean highlight) {
+        drawLabel(g2, origin, dim, highlight);
+    }
+
+    /**
+     * Draws the tile label, or coordinates string if unlabeled, centered in the tile.
+     *
+     * @param g2 The graphics environment to draw into.
+     * @param origin The origin point at which to draw the tile.
+     * @param dim The scaling dimensions to use for tile drawing.
+     * @param highlight Draw the tile highlighted.
+     */
+    protected void drawLabel(Graphics2D g2, Point2D origin, D dim, boolean highlight) {
+        var fonts = dim.labelFonts(g2);
+        var drawing = measure(fonts);
+        var fm = highlight ? fonts.boldMetrics : fonts.plainMetrics;
+        int width = highlight ? drawing.boldWidth : drawing.plainWidth;
+        double drawx = origin.getX() + (dim.getWidth() - width) / 2.0;
         double drawy = origin.getY() + (dim.getHeight() + fm.getAscent()) / 2.0;
 
-        g2.drawString( drawing, (float) drawx, (float) drawy);
+        var currentFont = g2.getFont();
+        g2.setFont(fm.getFont());
+        g2.drawString(drawing.text, (float) drawx, (float) drawy);
+        g2.setFont(currentFont);
+    }
+
+    /**
+     * Returns the label text of this tile measured with the provided fonts. The measurement is retained
+     * until the tile is drawn using different fonts.
+     *
+     * @param fonts The fonts which will be used to draw the label.
+     * @return The measured label.
+     */
+    private MeasuredLabel measure(LabelFonts fonts) {
+        var drawing = measured;
+        if ((null == drawing) || (drawing.fonts != fonts)) {
+            var text = (null != drawing) ? drawing.text : toString();
+            drawing = new MeasuredLabel(text, fonts);
+            measured = drawing;
+        }
+
+        return drawing;
+    }
+
+    /**
+     * Label text and its width when drawn with a particular set of label fonts.
+     */
+    private static final class MeasuredLabel {
+
+        /**
+         * The label text.
+         */
+        final String text;
+
+        /**
+         * The fonts used to measure the text.
+         */
+        final LabelFonts fonts;
+
+        /**
+         * Width of the text in the plain font.
+         */
+        final int plainWidth;
+
+        /**
+         * Width of the text in the bold font.
+         */
+        final int boldWidth;
+
+        MeasuredLabel(String text, LabelFonts fonts) {
+            this.text = text;
+            this.fonts = fonts;
+            this.plainWidth = fonts.plainMetrics.stringWidth(text);
+            this.boldWidth = fonts.boldMetrics.stringWidth(text);
+        }
     }
 }
@@ -28,6 +28,12 @@ import org.bondolo.tiles.*;
  */
 public abstract class GridTileCoord implements TileCoord {
 
+    /**
+     * Packed coordinate value which does not correspond to any tile. It is the packed form of the location
+     * {@code (Integer.MIN_VALUE, 0)}, which is therefore reserved.
+     */
+    public static final long NO_COORD = Long.MIN_VALUE;
+
     /**
      * horizontal location
      */
@@ -39,20 +45,13 @@ public abstract class GridTileCoord implements TileCoord {
     private final int y;
 
     /**
-     * Construct a new tile coordinate.
+     * Construct a new tile coordinate. Coordinates may be negative, though only
+     * {@link ChunkedTileMap chunked maps} contain tiles at negative locations.
      *
-     * @param x non-negative tile horizontal location.
-     * @param y non-negative tile vertical location.
-     * @throws IllegalArgumentException if x or y coordinates are negative
+     * @param x tile horizontal location.
+     * @param y tile vertical location.
      */
-    protected GridTileCoord(final int x, final int y) throws IllegalArgumentException {
-        if (x < 0) {
-            throw new IllegalArgumentException("x must be non-negative");
-        }
-        if (y < 0) {
-            throw new IllegalArgumentException("y must be non-negative");
-        }
-
+    protected GridTileCoord(final int x, final int y) {
         this.x = x;
         this.y = y;
     }
@@ -79,19 +78,64 @@ public abstract class GridTileCoord implements TileCoord {
     @Override
     public String toString() {
         var result = new StringBuilder();
-        int reducingx = x;
+        long reducingx = Math.abs((long) x);
         boolean first = true;
         do {
            result.insert(0, (char)('A' + (reducingx % 26) - (first ? 0 : 1)));
            reducingx /= 26;
            first = false;
         } while(0 != reducingx);
+        if (x < 0) {
+            result.insert(0, '-');
+        }
 
         result.append(y);
 
         return result.toString();
     }
 
+    /**
+     * Returns the coordinate packed into a single {@code long} value.
+     *
+     * @return the packed coordinate.
+     * @see #pack(int, int)
+     */
+    public long pack() {
+        return pack(x, y);
+    }
+
+    /**
+     * Pack a coordinate into a single {@code long} value. The horizontal location occupies the high 32 bits
+     * and the vertical location the low 32 bits.
+     *
+     * @param x horizontal location.
+     * @param y vertical location.
+     * @return the packed coordinate.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFF_FFFFL);
+    }
+
+    /**
+     * Returns the horizontal location of a packed coordinate.
+     *
+     * @param coord the packed coordinate.
+     * @return the horizontal location.
+     */
+    public static int unpackX(long coord) {
+        return (int) (coord >> 32);
+    }
+
+    /**
+     * Returns the vertical location of a packed coordinate.
+     *
+     * @param coord the packed coordinate.
+     * @return the vertical location.
+     */
+    public static int unpackY(long coord) {
+        return (int) coord;
+    }
+
     /**
      * The x value of the coordinate.
      *
@@ -22,6 +22,7 @@
 package org.bondolo.tiles.grid;
 
 import org.bondolo.tiles.*;
+import java.awt.Graphics2D;
 
 /**
  * Dimension of a tile in a Cartesian grid.
@@ -33,6 +34,11 @@ public abstract class GridTileDimension implements TileDimension {
      */
     protected final int side;
 
+    /**
+     * The most recently used label fonts for this dimension.
+     */
+    private volatile LabelFonts labelFonts;
+
     /**
      * Construct a new dimension for a grid of tiles.
      *
@@ -55,4 +61,21 @@ public abstract class GridTileDimension implements TileDimension {
     public int getSide() {
         return side;
     }
+
+    /**
+     * Returns the fonts for drawing tile labels at this dimension derived from the current font of the
+     * graphics environment.
+     *
+     * @param g2 The graphics environment.
+     * @return The fonts for drawing tile labels.
+     */
+    LabelFonts labelFonts(Graphics2D g2) {
+        var fonts = labelFonts;
+        if ((null == fonts) || !fonts.matches(g2)) {
+            fonts = new LabelFonts(g2, (float) (side / 3.0));
+            labelFonts = fonts;
+        }
+
+        return fonts;
+    }
 }
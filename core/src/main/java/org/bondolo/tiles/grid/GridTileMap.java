@@ -22,11 +22,16 @@
 package org.bondolo.tiles.grid;
 
 import org.bondolo.tiles.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Array;
-import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A map of tiles composed as a Cartesian grid of tiles.
@@ -38,16 +43,48 @@ import java.util.stream.Stream;
 public abstract class GridTileMap<T extends GridTile<C, D>, C extends GridTileCoord, D extends GridTileDimension> implements TileMap<T, C, D> {
 
     /**
-     * Tiles for this map.
+     * Access to the elements of lazily created tiles.
      */
-    private final T tiles[][];
+    private static final VarHandle TILES = MethodHandles.arrayElementVarHandle(GridTile[].class);
+
+    /**
+     * Tiles for this map stored column by column, the tile at {@code (x, y)} is at index
+     * {@code x * ySize + y}. Tiles which have not yet been created by the factory are null.
+     */
+    private final T tiles[];
+
+    /**
+     * Creates tiles on first access or null if all of the tiles were provided or have been
+     * {@link #materialize() materialized}.
+     */
+    private volatile TileFactory<? extends T> factory;
+
+    /**
+     * Columnar attributes of the tiles.
+     */
+    private final TileAttributes attributes;
+
+    /**
+     * Horizontal size of the map.
+     */
+    private final int xSize;
+
+    /**
+     * Vertical size of the map.
+     */
+    private final int ySize;
+
+    /**
+     * Neighbor offsets of the tiles, tabulated on first use.
+     */
+    private Neighborhood neighborhood;
 
     /**
      * Construct a new map of tiles.
      *
      * @param tiles The tiles for this map.
-     * @throws IllegalArgumentException if tiles is empty, the first row of tiles is empty or any of the
-     * rows length does not match the length of the first row.
+     * @throws IllegalArgumentException if tiles is empty, the first row of tiles is empty, any of the
+     * rows length does not match the length of the first row or there are too many tiles.
      * @throws NullPointerException if the tiles, or any row is null.
      */
     protected GridTileMap(T tiles[][]) {
@@ -59,19 +96,54 @@ public abstract class GridTileMap<T extends GridTile<C, D>, C extends GridTileCo
             throw new IllegalArgumentException("empty tile row");
         }
 
-        // clone and check the input arrays shape
-        this.tiles = java.util.Arrays.stream(tiles)
-                .peek(row -> {
-                    if (Objects.requireNonNull(row, "null row").length != firstRow.length) {
-                        throw new IllegalArgumentException("inconsistent row length");
-                    }
-                })
-                .map(T[]::clone)
-                .toArray(size -> {
-                    @SuppressWarnings("unchecked")
-                    T[][] map = (T[][]) Array.newInstance(tiles.getClass().getComponentType(), size);
-                    return map;
-                });
+        this.xSize = tiles.length;
+        this.ySize = firstRow.length;
+        if ((long) xSize * ySize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many tiles");
+        }
+
+        @SuppressWarnings("unchecked")
+        T[] flat = (T[]) Array.newInstance(firstRow.getClass().getComponentType(), xSize * ySize);
+
+        // check the input arrays shape and flatten
+        for (int x = 0; x < xSize; x++) {
+            var row = tiles[x];
+            if (Objects.requireNonNull(row, "null row").length != ySize) {
+                throw new IllegalArgumentException("inconsistent row length");
+            }
+            System.arraycopy(row, 0, flat, x * ySize, ySize);
+        }
+
+        this.tiles = flat;
+        this.factory = null;
+        this.attributes = new TileAttributes(xSize * ySize);
+    }
+
+    /**
+     * Construct a new map of tiles which are created by the factory on first access. Only the array of
+     * references to the tiles is allocated up front.
+     *
+     * @param xSize The horizontal size of the map.
+     * @param ySize The vertical size of the map.
+     * @param factory Creates the tile at each location.
+     * @throws IllegalArgumentException if either size is not positive or there are too many tiles.
+     * @throws NullPointerException if the factory is null.
+     * @see #materialize()
+     */
+    @SuppressWarnings("unchecked")
+    protected GridTileMap(int xSize, int ySize, TileFactory<? extends T> factory) {
+        if ((xSize <= 0) || (ySize <= 0)) {
+            throw new IllegalArgumentException("empty tiles");
+        }
+        if ((long) xSize * ySize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too many tiles");
+        }
+
+        this.xSize = xSize;
+        this.ySize = ySize;
+        this.factory = Objects.requireNonNull(factory, "Null factory");
+        this.tiles = (T[]) new GridTile<?, ?>[xSize * ySize];
+        this.attributes = new TileAttributes(xSize * ySize);
     }
 
     /**
@@ -80,7 +152,7 @@ public abstract class GridTileMap<T extends GridTile<C, D>, C extends GridTileCo
      * @return the horizontal size of the tile map.
      */
     public int getXSize() {
-        return tiles.length;
+        return xSize;
     }
 
     /**
@@ -89,7 +161,45 @@ public abstract class GridTileMap<T extends GridTile<C, D>, C extends GridTileCo
      * @return the vertical size of the tile map.
      */
     public int getYSize() {
-        return tiles[0].length;
+        return ySize;
+    }
+
+    /**
+     * Returns the tiling of the map.
+     *
+     * @return the tiling of the map.
+     */
+    public abstract Tiling getTiling();
+
+    /**
+     * Returns the columnar attributes of the tiles, which are indexed by the {@link #indexOf(int, int) flat
+     * tile index}. Tiles may keep their state in attribute columns rather than in fields so that the state
+     * of huge maps is compact and may be stored outside of the heap.
+     *
+     * @return the attributes of the tiles.
+     */
+    public TileAttributes getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns the flat index of the tile at the specified location. Tiles are numbered column by column.
+     *
+     * @param x The horizontal index of the tile.
+     * @param y The vertical index of the tile.
+     * @return The flat index of the tile.
+     * @throws IllegalArgumentException if x or y is not in range
+     */
+    public int indexOf(int x, int y) {
+        if ((x < 0) || (x >= xSize)) {
+            throw new IllegalArgumentException("invalid X coordinate");
+        }
+
+        if ((y < 0) || (y >= ySize)) {
+            throw new IllegalArgumentException("invalid Y coordinate");
+        }
+
+        return x * ySize + y;
     }
 
     /**
@@ -101,21 +211,177 @@ public abstract class GridTileMap<T extends GridTile<C, D>, C extends GridTileCo
      * @throws IllegalArgumentException if x or y is not in range
      */
     public T getTile(int x, int y) {
-        if ((x < 0) || (x >= tiles.length)) {
-            throw new IllegalArgumentException("invalid X coordinate");
+        return tileAt(indexOf(x, y));
+    }
+
+    /**
+     * Returns the tile at the specified index, creating it if necessary. If several threads create the same
+     * tile concurrently only one of the tiles is kept and returned to all of them.
+     *
+     * @param index The index of the tile within the flattened tiles.
+     * @return The tile.
+     */
+    private T tileAt(int index) {
+        var creator = factory;
+        if (null == creator) {
+            return tiles[index];
         }
 
-        if ((y < 0) || (y >= tiles[x].length)) {
-            throw new IllegalArgumentException("invalid Y coordinate");
+        @SuppressWarnings("unchecked")
+        T tile = (T) TILES.getAcquire(tiles, index);
+        if (null == tile) {
+            T created = creator.create(index / ySize, index % ySize);
+            @SuppressWarnings("unchecked")
+            T witness = (T) TILES.compareAndExchangeRelease(tiles, index, (T) null, created);
+            tile = (null == witness) ? created : witness;
+        }
+
+        return tile;
+    }
+
+    /**
+     * Creates all of the tiles which have not yet been created, in parallel by column, and then releases the
+     * factory. Does nothing if all of the tiles were provided when the map was constructed or have already
+     * been materialized.
+     */
+    public void materialize() {
+        if (null != factory) {
+            IntStream.range(0, xSize).parallel().forEach(x -> {
+                for (int index = x * ySize, end = index + ySize; index < end; index++) {
+                    tileAt(index);
+                }
+            });
+            // every tile now exists, the factory and anything it references are no longer needed
+            factory = null;
+        }
+    }
+
+    /**
+     * Retrieve the tile associated with the specified packed coordinate.
+     *
+     * @param coord The packed coordinate of the requested tile.
+     * @return The tile.
+     * @throws IllegalArgumentException if the coordinate is not in range
+     * @see GridTileCoord#pack(int, int)
+     */
+    public T getTile(long coord) {
+        return getTile(GridTileCoord.unpackX(coord), GridTileCoord.unpackY(coord));
+    }
+
+    /**
+     * Returns the largest number of neighbors of any tile, which is the size needed for the arrays passed to
+     * {@link #neighbors(int, int, long[])} and {@link #neighborIndexes(int, int, int[])}.
+     *
+     * @return the largest number of neighbors of any tile.
+     */
+    public int getMaxNeighbors() {
+        return getTiling().getMaxNeighbors();
+    }
+
+    /**
+     * Copy the packed coordinates of the tiles which share an edge with the specified tile. Neighbors outside
+     * of the map are omitted. No objects are allocated, so the array may be reused for every tile.
+     *
+     * @param x The horizontal index of the tile.
+     * @param y The vertical index of the tile.
+     * @param into The destination of the packed coordinates, at least {@link #getMaxNeighbors()} long.
+     * @return The number of neighbors copied.
+     * @throws IllegalArgumentException if x or y is not in range
+     * @see GridTileCoord#pack(int, int)
+     */
+    public int neighbors(int x, int y, long[] into) {
+        indexOf(x, y);
+        return neighborhood().neighbors(x, y, into);
+    }
+
+    /**
+     * Copy the packed coordinates of the tiles which share an edge with the specified tile. Neighbors outside
+     * of the map are omitted. No objects are allocated, so the array may be reused for every tile.
+     *
+     * @param coord The coordinate of the tile.
+     * @param into The destination of the packed coordinates, at least {@link #getMaxNeighbors()} long.
+     * @return The number of neighbors copied.
+     * @throws IllegalArgumentException if the coordinate is not in range
+     */
+    public int neighbors(C coord, long[] into) {
+        return neighbors(coord.getX(), coord.getY(), into);
+    }
+
+    /**
+     * Copy the {@link #indexOf(int, int) flat indexes} of the tiles which share an edge with the specified
+     * tile. The indexes are computed by adding precomputed offsets to the index of the tile, which suits
+     * graph algorithms over the {@link #getAttributes() attribute columns}. Neighbors outside of the map are
+     * omitted.
+     *
+     * @param x The horizontal index of the tile.
+     * @param y The vertical index of the tile.
+     * @param into The destination of the flat indexes, at least {@link #getMaxNeighbors()} long.
+     * @return The number of neighbors copied.
+     * @throws IllegalArgumentException if x or y is not in range
+     */
+    public int neighborIndexes(int x, int y, int[] into) {
+        indexOf(x, y);
+        return neighborhood().neighborIndexes(x, y, into);
+    }
+
+    /**
+     * Perform an action upon the location of each of the tiles which share an edge with the specified tile.
+     * Neighbors outside of the map are omitted.
+     *
+     * @param x The horizontal index of the tile.
+     * @param y The vertical index of the tile.
+     * @param action The action to perform.
+     * @throws IllegalArgumentException if x or y is not in range
+     */
+    public void forEachNeighbor(int x, int y, IntBinaryConsumer action) {
+        indexOf(x, y);
+        neighborhood().forEachNeighbor(x, y, action);
+    }
+
+    /**
+     * Returns the neighbor offsets of the tiles, tabulating them if necessary. Tabulation is idempotent so
+     * concurrent callers may each create a table.
+     *
+     * @return the neighbor offsets of the tiles.
+     */
+    private Neighborhood neighborhood() {
+        var result = neighborhood;
+        if (null == result) {
+            result = new Neighborhood(getTiling(), xSize, ySize);
+            neighborhood = result;
         }
 
-        return tiles[x][y];
+        return result;
     }
 
     @Override
     public Stream<T> tiles() {
-        return Arrays.stream(tiles)
-                .flatMap(row -> Arrays.stream(row));
+        return StreamSupport.stream(new TileSpliterator<>(this, 0, 0, ySize, 0, tiles.length), false);
+    }
+
+    /**
+     * Returns a stream of the tiles within the specified rectangular range of coordinates. The range is
+     * clipped to the bounds of the map.
+     *
+     * @param fromX The lowest horizontal index, inclusive.
+     * @param fromY The lowest vertical index, inclusive.
+     * @param toX The highest horizontal index, exclusive.
+     * @param toY The highest vertical index, exclusive.
+     * @return a stream of the tiles within the range.
+     */
+    public Stream<T> tiles(int fromX, int fromY, int toX, int toY) {
+        int minX = Math.max(fromX, 0);
+        int minY = Math.max(fromY, 0);
+        int maxX = Math.min(toX, xSize);
+        int maxY = Math.min(toY, ySize);
+
+        if ((minX >= maxX) || (minY >= maxY)) {
+            return Stream.empty();
+        }
+
+        int height = maxY - minY;
+        return StreamSupport.stream(
+                new TileSpliterator<>(this, minX, minY, height, 0, (maxX - minX) * height), false);
     }
 
     @Override
@@ -125,4 +391,116 @@ public abstract class GridTileMap<T extends GridTile<C, D>, C extends GridTileCo
 
         return Optional.of(getTile(x, y));
     }
+
+    /**
+     * A spliterator over a rectangular range of the flattened tiles. Positions within the range are
+     * numbered column by column and split evenly by position. Tiles which have not yet been created are
+     * created as they are traversed.
+     *
+     * @param <T> Class of tiles.
+     */
+    private static final class TileSpliterator<T extends GridTile<?, ?>> implements Spliterator<T> {
+
+        /**
+         * The map of the tiles.
+         */
+        private final GridTileMap<T, ?, ?> map;
+
+        /**
+         * Vertical size of the map, the stride between columns.
+         */
+        private final int ySize;
+
+        /**
+         * Horizontal index of the first column in the range.
+         */
+        private final int minX;
+
+        /**
+         * Vertical index of the first row in the range.
+         */
+        private final int minY;
+
+        /**
+         * Number of rows in the range.
+         */
+        private final int height;
+
+        /**
+         * Next position to traverse.
+         */
+        private int position;
+
+        /**
+         * One past the last position to traverse.
+         */
+        private final int fence;
+
+        TileSpliterator(GridTileMap<T, ?, ?> map, int minX, int minY, int height, int position, int fence) {
+            this.map = map;
+            this.ySize = map.ySize;
+            this.minX = minX;
+            this.minY = minY;
+            this.height = height;
+            this.position = position;
+            this.fence = fence;
+        }
+
+        /**
+         * Returns the index within the flattened tiles for the specified position.
+         *
+         * @param at the position within the range.
+         * @return the index within the flattened tiles.
+         */
+        private int indexOf(int at) {
+            return (minX + at / height) * ySize + minY + at % height;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (position < fence) {
+                action.accept(map.tileAt(indexOf(position++)));
+                return true;
+            }
+
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int at = position;
+            position = fence;
+
+            // traverse a column at a time
+            while (at < fence) {
+                int index = indexOf(at);
+                int run = Math.min(height - at % height, fence - at);
+                for (int end = index + run; index < end; index++) {
+                    action.accept(map.tileAt(index));
+                }
+                at += run;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int mid = (position + fence) >>> 1;
+
+            return (mid <= position)
+                    ? null
+                    : new TileSpliterator<>(map, minX, minY, height, position, position = mid);
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+        }
+    }
 }
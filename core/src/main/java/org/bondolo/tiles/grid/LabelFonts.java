@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.grid;
+
+import static java.awt.Font.BOLD;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+
+/**
+ * The fonts and font metrics used for drawing tile labels at a single scale. The fonts are derived from a base
+ * font for a particular font rendering context.
+ */
+final class LabelFonts {
+
+    /**
+     * The font from which the label fonts were derived.
+     */
+    private final Font base;
+
+    /**
+     * The font rendering context for which the metrics were obtained.
+     */
+    private final FontRenderContext frc;
+
+    /**
+     * Font for drawing labels.
+     */
+    final Font plain;
+
+    /**
+     * Font for drawing highlighted labels.
+     */
+    final Font bold;
+
+    /**
+     * Metrics for {@link #plain}.
+     */
+    final FontMetrics plainMetrics;
+
+    /**
+     * Metrics for {@link #bold}.
+     */
+    final FontMetrics boldMetrics;
+
+    /**
+     * Derive label fonts from the current font of the graphics environment.
+     *
+     * @param g2 The graphics environment.
+     * @param size The point size of the label fonts.
+     */
+    LabelFonts(Graphics2D g2, float size) {
+        this.base = g2.getFont();
+        this.frc = g2.getFontRenderContext();
+        this.plain = base.deriveFont(size);
+        this.bold = plain.deriveFont(BOLD);
+        this.plainMetrics = g2.getFontMetrics(plain);
+        this.boldMetrics = g2.getFontMetrics(bold);
+    }
+
+    /**
+     * Returns {@code true} if these fonts were derived for the current font and rendering context of the
+     * graphics environment.
+     *
+     * @param g2 The graphics environment.
+     * @return {@code true} if these fonts may be used with the graphics environment.
+     */
+    boolean matches(Graphics2D g2) {
+        var font = g2.getFont();
+
+        return ((base == font) || base.equals(font)) && frc.equals(g2.getFontRenderContext());
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.grid;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed neighbor offsets of the tiles of a grid map. Offsets are tabulated for every combination of
+ * location parity and map border, so a tile's neighbors are enumerated from a single table without testing
+ * each neighbor against the bounds of the map. Tiles away from the border, almost all of the tiles of a large
+ * map, share the same two tables.
+ */
+final class Neighborhood {
+
+    /**
+     * Bits of the table key identifying the borders of the map which a tile touches.
+     */
+    private static final int LEFT = 1;
+    private static final int RIGHT = 2;
+    private static final int TOP = 4;
+    private static final int BOTTOM = 8;
+
+    /**
+     * Number of table keys for each parity.
+     */
+    private static final int BORDERS = 16;
+
+    private final Tiling tiling;
+
+    private final int xSize;
+
+    private final int ySize;
+
+    /**
+     * Horizontal and vertical offsets of the neighbors, as pairs, indexed by table key.
+     */
+    private final int[][] offsets;
+
+    /**
+     * Offsets of the flat indexes of the neighbors, indexed by table key.
+     */
+    private final int[][] indexOffsets;
+
+    /**
+     * Tabulate the neighbor offsets for a map.
+     *
+     * @param tiling The tiling of the map.
+     * @param xSize The horizontal size of the map.
+     * @param ySize The vertical size of the map.
+     */
+    Neighborhood(Tiling tiling, int xSize, int ySize) {
+        this.tiling = tiling;
+        this.xSize = xSize;
+        this.ySize = ySize;
+        this.offsets = new int[2 * BORDERS][];
+        this.indexOffsets = new int[2 * BORDERS][];
+
+        for (int parity = 0; parity < 2; parity++) {
+            int[] all = tiling.offsets(parity);
+            for (int border = 0; border < BORDERS; border++) {
+                int[] within = new int[all.length];
+                int count = 0;
+                for (int each = 0; each < all.length; each += 2) {
+                    int dx = all[each];
+                    int dy = all[each + 1];
+                    boolean outside = ((dx < 0) && (0 != (border & LEFT)))
+                            || ((dx > 0) && (0 != (border & RIGHT)))
+                            || ((dy < 0) && (0 != (border & TOP)))
+                            || ((dy > 0) && (0 != (border & BOTTOM)));
+                    if (!outside) {
+                        within[count++] = dx;
+                        within[count++] = dy;
+                    }
+                }
+
+                int key = parity * BORDERS + border;
+                offsets[key] = Arrays.copyOf(within, count);
+                indexOffsets[key] = new int[count / 2];
+                for (int each = 0; each < count; each += 2) {
+                    indexOffsets[key][each / 2] = within[each] * ySize + within[each + 1];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the table key of a location. The location must be within the map.
+     *
+     * @param x The horizontal index.
+     * @param y The vertical index.
+     * @return The table key.
+     */
+    private int keyOf(int x, int y) {
+        // each border bit is the sign bit of a difference which is negative only on that border
+        int border = ((x - 1) >>> 31)
+                | (((xSize - 2 - x) >>> 31) << 1)
+                | (((y - 1) >>> 31) << 2)
+                | (((ySize - 2 - y) >>> 31) << 3);
+
+        return tiling.parityOf(x, y) * BORDERS + border;
+    }
+
+    /**
+     * Copy the packed coordinates of the neighbors of a location.
+     *
+     * @param x The horizontal index.
+     * @param y The vertical index.
+     * @param into The destination of the packed coordinates.
+     * @return The number of neighbors.
+     */
+    int neighbors(int x, int y, long[] into) {
+        int[] table = offsets[keyOf(x, y)];
+        int count = table.length / 2;
+        for (int each = 0; each < count; each++) {
+            into[each] = GridTileCoord.pack(x + table[2 * each], y + table[2 * each + 1]);
+        }
+
+        return count;
+    }
+
+    /**
+     * Copy the flat indexes of the neighbors of a location.
+     *
+     * @param x The horizontal index.
+     * @param y The vertical index.
+     * @param into The destination of the flat indexes.
+     * @return The number of neighbors.
+     */
+    int neighborIndexes(int x, int y, int[] into) {
+        int[] table = indexOffsets[keyOf(x, y)];
+        int index = x * ySize + y;
+        for (int each = 0; each < table.length; each++) {
+            into[each] = index + table[each];
+        }
+
+        return table.length;
+    }
+
+    /**
+     * Perform an action upon each of the neighbors of a location.
+     *
+     * @param x The horizontal index.
+     * @param y The vertical index.
+     * @param action The action to perform.
+     */
+    void forEachNeighbor(int x, int y, IntBinaryConsumer action) {
+        int[] table = offsets[keyOf(x, y)];
+        for (int each = 0; each < table.length; each += 2) {
+            action.accept(x + table[each], y + table[each + 1]);
+        }
+    }
+}
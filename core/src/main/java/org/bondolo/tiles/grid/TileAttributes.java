@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.grid;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Columnar storage of tile attributes. Each named {@link TileColumn column} holds one primitive or enum value
+ * for every tile, indexed by the flat tile index, so that tile state need not be kept in per-tile objects
+ * and scans of an attribute read contiguous memory. Columns may be stored on the heap or in direct buffers
+ * outside of the heap.
+ *
+ * @see GridTileMap#getAttributes()
+ */
+public final class TileAttributes {
+
+    /**
+     * Where the values of a column are stored.
+     */
+    public enum Storage {
+        /**
+         * On the heap, counted against the maximum heap size.
+         */
+        HEAP,
+        /**
+         * In a direct buffer outside of the heap.
+         */
+        DIRECT;
+    }
+
+    /**
+     * Number of tiles.
+     */
+    private final int size;
+
+    /**
+     * The columns by name in the order they were added.
+     */
+    private final Map<String, TileColumn> columns = new LinkedHashMap<>();
+
+    /**
+     * Construct new attribute storage without any columns.
+     *
+     * @param size The number of tiles.
+     * @throws IllegalArgumentException if the size is negative.
+     */
+    public TileAttributes(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of tiles, which is the size of every column.
+     *
+     * @return the number of tiles.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add a new column of byte values, initially zero.
+     *
+     * @param name The name of the column.
+     * @param storage Where the values are stored.
+     * @return the new column.
+     * @throws IllegalArgumentException if there is already a column with the name.
+     */
+    public TileColumn.OfByte addByteColumn(String name, Storage storage) {
+        return add(new TileColumn.OfByte(name, size, allocate(TileColumn.Type.BYTE, storage), 0, Byte.BYTES));
+    }
+
+    /**
+     * Add a new column of int values, initially zero.
+     *
+     * @param name The name of the column.
+     * @param storage Where the values are stored.
+     * @return the new column.
+     * @throws IllegalArgumentException if there is already a column with the name or the column would be
+     * too large.
+     */
+    public TileColumn.OfInt addIntColumn(String name, Storage storage) {
+        return add(new TileColumn.OfInt(name, size, allocate(TileColumn.Type.INT, storage), 0, Integer.BYTES));
+    }
+
+    /**
+     * Add a new column of float values, initially zero.
+     *
+     * @param name The name of the column.
+     * @param storage Where the values are stored.
+     * @return the new column.
+     * @throws IllegalArgumentException if there is already a column with the name or the column would be
+     * too large.
+     */
+    public TileColumn.OfFloat addFloatColumn(String name, Storage storage) {
+        return add(new TileColumn.OfFloat(name, size, allocate(TileColumn.Type.FLOAT, storage), 0, Float.BYTES));
+    }
+
+    /**
+     * Add a new column of double values, initially zero.
+     *
+     * @param name The name of the column.
+     * @param storage Where the values are stored.
+     * @return the new column.
+     * @throws IllegalArgumentException if there is already a column with the name or the column would be
+     * too large.
+     */
+    public TileColumn.OfDouble addDoubleColumn(String name, Storage storage) {
+        return add(new TileColumn.OfDouble(name, size, allocate(TileColumn.Type.DOUBLE, storage), 0, Double.BYTES));
+    }
+
+    /**
+     * Add a new column of enum constants, initially the first constant.
+     *
+     * @param <E> Class of the enum constants.
+     * @param name The name of the column.
+     * @param type Class of the enum constants.
+     * @param storage Where the values are stored.
+     * @return the new column.
+     * @throws IllegalArgumentException if there is already a column with the name or the enum has more than
+     * 256 constants.
+     */
+    public <E extends Enum<E>> TileColumn.OfEnum<E> addEnumColumn(String name, Class<E> type, Storage storage) {
+        return add(new TileColumn.OfEnum<>(name, size, allocate(TileColumn.Type.ENUM, storage), 0, Byte.BYTES, type));
+    }
+
+    /**
+     * Returns the column with the specified name.
+     *
+     * @param name The name of the column.
+     * @return the column or empty result if there is no column with the name.
+     */
+    public synchronized Optional<TileColumn> getColumn(String name) {
+        return Optional.ofNullable(columns.get(name));
+    }
+
+    /**
+     * Returns the columns in the order they were added.
+     *
+     * @return the columns.
+     */
+    public synchronized List<TileColumn> getColumns() {
+        return new ArrayList<>(columns.values());
+    }
+
+    /**
+     * Remove the column with the specified name.
+     *
+     * @param name The name of the column.
+     * @return true if the column was removed otherwise false.
+     */
+    public synchronized boolean removeColumn(String name) {
+        return null != columns.remove(name);
+    }
+
+    /**
+     * Add an existing column, such as a column {@link TileColumn#of over a mapped file}.
+     *
+     * @param <K> Class of the column.
+     * @param column The column to add.
+     * @return the column.
+     * @throws IllegalArgumentException if there is already a column with the name or the size of the column
+     * does not match.
+     */
+    public <K extends TileColumn> K addColumn(K column) {
+        if (column.size() != size) {
+            throw new IllegalArgumentException("Column size " + column.size() + " does not match " + size);
+        }
+
+        return add(column);
+    }
+
+    /**
+     * Add several existing columns. Either all of the columns are added or, if any of them can not be added,
+     * none are.
+     *
+     * @param added The columns to add.
+     * @throws IllegalArgumentException if there is already a column with the name of one of the columns, two
+     * of the columns have the same name or the size of one of the columns does not match.
+     */
+    public synchronized void addColumns(List<? extends TileColumn> added) {
+        var names = new HashSet<String>();
+        for (var column : added) {
+            if (column.size() != size) {
+                throw new IllegalArgumentException("Column size " + column.size() + " does not match " + size);
+            }
+            if (columns.containsKey(column.getName()) || !names.add(column.getName())) {
+                throw new IllegalArgumentException("Duplicate column: " + column.getName());
+            }
+        }
+
+        added.forEach(column -> columns.put(column.getName(), column));
+    }
+
+    /**
+     * Add a column unless there is already a column of the same name.
+     *
+     * @param <K> Class of the column.
+     * @param column The column to add.
+     * @return the column.
+     */
+    private synchronized <K extends TileColumn> K add(K column) {
+        if (null != columns.putIfAbsent(column.getName(), column)) {
+            throw new IllegalArgumentException("Duplicate column: " + column.getName());
+        }
+
+        return column;
+    }
+
+    /**
+     * Allocate a buffer for the values of a column.
+     *
+     * @param type The type of the values.
+     * @param storage Where the values are stored.
+     * @return the zeroed buffer.
+     */
+    private ByteBuffer allocate(TileColumn.Type type, Storage storage) {
+        long capacity = (long) size * type.getWidth();
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many tiles for a " + type + " column");
+        }
+
+        var buffer = switch (Objects.requireNonNull(storage, "Null storage")) {
+            case HEAP -> ByteBuffer.allocate((int) capacity);
+            case DIRECT -> ByteBuffer.allocateDirect((int) capacity);
+        };
+
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+}
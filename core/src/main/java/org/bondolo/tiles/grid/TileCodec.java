@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.grid;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes and reads the state of tiles so that they may be stored outside of the heap and later recreated.
+ *
+ * @param <T> Class of tiles encoded.
+ */
+public interface TileCodec<T> {
+
+    /**
+     * Write the state of a tile. The location of the tile is not written.
+     *
+     * @param tile The tile to write.
+     * @param out The destination of the tile state.
+     * @throws IOException for errors writing the tile.
+     */
+    void write(T tile, DataOutput out) throws IOException;
+
+    /**
+     * Read the state of a tile and recreate it. The coordinate of the tile must be {@code (x, y)}.
+     *
+     * @param x The horizontal index of the tile.
+     * @param y The vertical index of the tile.
+     * @param in The source of the tile state.
+     * @return The recreated tile.
+     * @throws IOException for errors reading the tile.
+     */
+    T read(int x, int y, DataInput in) throws IOException;
+}
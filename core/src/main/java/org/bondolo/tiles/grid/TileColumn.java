@@ -0,0 +1,523 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.grid;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A column of one typed attribute for each of the tiles of a map, indexed by the flat tile index. Values are
+ * stored in a {@link ByteBuffer}, which may be on the heap, direct or mapped from a file, at a fixed stride
+ * from an offset. Columns are not synchronized.
+ *
+ * @see TileAttributes
+ */
+public abstract class TileColumn {
+
+    /**
+     * The type of the values in a column.
+     */
+    public enum Type {
+        /**
+         * Signed 8-bit integers.
+         */
+        BYTE(Byte.BYTES),
+        /**
+         * Signed 32-bit integers.
+         */
+        INT(Integer.BYTES),
+        /**
+         * 32-bit floating point values.
+         */
+        FLOAT(Float.BYTES),
+        /**
+         * 64-bit floating point values.
+         */
+        DOUBLE(Double.BYTES),
+        /**
+         * Enum constants stored as their byte ordinal.
+         */
+        ENUM(Byte.BYTES);
+
+        /**
+         * Number of bytes used for each value.
+         */
+        private final int width;
+
+        /**
+         * Construct a type.
+         *
+         * @param width The number of bytes used for each value.
+         */
+        private Type(int width) {
+            this.width = width;
+        }
+
+        /**
+         * Returns the number of bytes used for each value.
+         *
+         * @return the number of bytes used for each value.
+         */
+        public int getWidth() {
+            return width;
+        }
+    }
+
+    /**
+     * Name of the column.
+     */
+    private final String name;
+
+    /**
+     * Number of values in the column.
+     */
+    private final int size;
+
+    /**
+     * Storage of the values.
+     */
+    protected final ByteBuffer buffer;
+
+    /**
+     * Position of the first value within the buffer.
+     */
+    private final int offset;
+
+    /**
+     * Distance in bytes between successive values within the buffer.
+     */
+    private final int stride;
+
+    TileColumn(String name, int size, ByteBuffer buffer, int offset, int stride) {
+        this.name = Objects.requireNonNull(name, "Null name");
+        this.size = size;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.stride = stride;
+    }
+
+    /**
+     * Returns a new column over existing storage. Values are read from and written to the buffer in its byte
+     * order.
+     *
+     * @param name The name of the column.
+     * @param type The type of the values.
+     * @param enumType The class of the enum constants for {@link Type#ENUM enum} columns, otherwise ignored.
+     * @param size The number of values.
+     * @param buffer The storage of the values.
+     * @param offset The position of the first value within the buffer.
+     * @param stride The distance in bytes between successive values, at least the width of the type.
+     * @return the new column.
+     * @throws IllegalArgumentException if the values do not fit within the buffer, the stride is smaller
+     * than the width of the type or the enum class is invalid.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static TileColumn of(String name, Type type, Class<? extends Enum<?>> enumType, int size,
+            ByteBuffer buffer, int offset, int stride) {
+        if ((size < 0) || (offset < 0) || (stride < type.getWidth())) {
+            throw new IllegalArgumentException("Invalid layout of column " + name);
+        }
+        if ((0 != size) && ((long) offset + (long) (size - 1) * stride + type.getWidth() > buffer.limit())) {
+            throw new IllegalArgumentException("Column " + name + " does not fit within the buffer");
+        }
+
+        return switch (type) {
+            case BYTE -> new OfByte(name, size, buffer, offset, stride);
+            case INT -> new OfInt(name, size, buffer, offset, stride);
+            case FLOAT -> new OfFloat(name, size, buffer, offset, stride);
+            case DOUBLE -> new OfDouble(name, size, buffer, offset, stride);
+            case ENUM -> {
+                if ((null == enumType) || !enumType.isEnum()) {
+                    throw new IllegalArgumentException("Invalid enum class for column " + name);
+                }
+                yield new OfEnum(name, size, buffer, offset, stride, enumType);
+            }
+        };
+    }
+
+    /**
+     * Returns the name of the column.
+     *
+     * @return the name of the column.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of values in the column.
+     *
+     * @return the number of values in the column.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the type of the values in the column.
+     *
+     * @return the type of the values in the column.
+     */
+    public abstract Type getType();
+
+    /**
+     * Returns the bits of the value at the specified index, zero extended. Floating point values are returned
+     * as their raw bits.
+     *
+     * @param index The flat tile index.
+     * @return the bits of the value.
+     */
+    public long getBits(int index) {
+        int position = positionOf(index);
+        return switch (getType()) {
+            case BYTE, ENUM -> buffer.get(position) & 0xFFL;
+            case INT, FLOAT -> buffer.getInt(position) & 0xFFFF_FFFFL;
+            case DOUBLE -> buffer.getLong(position);
+        };
+    }
+
+    /**
+     * Sets the value at the specified index from its bits. Bits beyond the width of the type are ignored.
+     *
+     * @param index The flat tile index.
+     * @param bits The bits of the value.
+     * @see #getBits(int)
+     */
+    public void setBits(int index, long bits) {
+        int position = positionOf(index);
+        switch (getType()) {
+            case BYTE, ENUM -> buffer.put(position, (byte) bits);
+            case INT, FLOAT -> buffer.putInt(position, (int) bits);
+            case DOUBLE -> buffer.putLong(position, bits);
+        }
+    }
+
+    /**
+     * Copy all of the values of another column of the same type and size into this column.
+     *
+     * @param source The column from which values are copied.
+     * @throws IllegalArgumentException if the type or size of the columns differ.
+     */
+    public void copyFrom(TileColumn source) {
+        if ((source.getType() != getType()) || (source.size != size)) {
+            throw new IllegalArgumentException("Incompatible column " + source.name);
+        }
+        if ((source instanceof OfEnum) && (((OfEnum<?>) source).getEnumType() != ((OfEnum<?>) this).getEnumType())) {
+            throw new IllegalArgumentException("Incompatible enum column " + source.name);
+        }
+
+        // values are copied individually as the byte order of the columns may differ
+        var from = source.buffer;
+        int fromStride = source.stride;
+        int toStride = stride;
+        switch (getType()) {
+            case BYTE, ENUM -> {
+                for (int index = 0, in = source.offset, out = offset; index < size; index++, in += fromStride, out += toStride) {
+                    buffer.put(out, from.get(in));
+                }
+            }
+            case INT -> {
+                for (int index = 0, in = source.offset, out = offset; index < size; index++, in += fromStride, out += toStride) {
+                    buffer.putInt(out, from.getInt(in));
+                }
+            }
+            case FLOAT -> {
+                for (int index = 0, in = source.offset, out = offset; index < size; index++, in += fromStride, out += toStride) {
+                    buffer.putFloat(out, from.getFloat(in));
+                }
+            }
+            case DOUBLE -> {
+                for (int index = 0, in = source.offset, out = offset; index < size; index++, in += fromStride, out += toStride) {
+                    buffer.putDouble(out, from.getDouble(in));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the position within the buffer of the value at the specified index.
+     *
+     * @param index The flat tile index.
+     * @return the position within the buffer.
+     * @throws IndexOutOfBoundsException if the index is not within the column.
+     */
+    protected final int positionOf(int index) {
+        return offset + Objects.checkIndex(index, size) * stride;
+    }
+
+    /**
+     * A column of byte values.
+     */
+    public static final class OfByte extends TileColumn {
+
+        OfByte(String name, int size, ByteBuffer buffer, int offset, int stride) {
+            super(name, size, buffer, offset, stride);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.BYTE;
+        }
+
+        /**
+         * Returns the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @return the value.
+         */
+        public byte get(int index) {
+            return buffer.get(positionOf(index));
+        }
+
+        /**
+         * Sets the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @param value The value.
+         */
+        public void set(int index, byte value) {
+            buffer.put(positionOf(index), value);
+        }
+
+        /**
+         * Sets the value of every tile.
+         *
+         * @param value The value.
+         */
+        public void fill(byte value) {
+            for (int index = 0; index < size(); index++) {
+                set(index, value);
+            }
+        }
+    }
+
+    /**
+     * A column of int values.
+     */
+    public static final class OfInt extends TileColumn {
+
+        OfInt(String name, int size, ByteBuffer buffer, int offset, int stride) {
+            super(name, size, buffer, offset, stride);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.INT;
+        }
+
+        /**
+         * Returns the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @return the value.
+         */
+        public int get(int index) {
+            return buffer.getInt(positionOf(index));
+        }
+
+        /**
+         * Sets the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @param value The value.
+         */
+        public void set(int index, int value) {
+            buffer.putInt(positionOf(index), value);
+        }
+
+        /**
+         * Sets the value of every tile.
+         *
+         * @param value The value.
+         */
+        public void fill(int value) {
+            for (int index = 0; index < size(); index++) {
+                set(index, value);
+            }
+        }
+    }
+
+    /**
+     * A column of float values.
+     */
+    public static final class OfFloat extends TileColumn {
+
+        OfFloat(String name, int size, ByteBuffer buffer, int offset, int stride) {
+            super(name, size, buffer, offset, stride);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.FLOAT;
+        }
+
+        /**
+         * Returns the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @return the value.
+         */
+        public float get(int index) {
+            return buffer.getFloat(positionOf(index));
+        }
+
+        /**
+         * Sets the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @param value The value.
+         */
+        public void set(int index, float value) {
+            buffer.putFloat(positionOf(index), value);
+        }
+
+        /**
+         * Sets the value of every tile.
+         *
+         * @param value The value.
+         */
+        public void fill(float value) {
+            for (int index = 0; index < size(); index++) {
+                set(index, value);
+            }
+        }
+    }
+
+    /**
+     * A column of double values.
+     */
+    public static final class OfDouble extends TileColumn {
+
+        OfDouble(String name, int size, ByteBuffer buffer, int offset, int stride) {
+            super(name, size, buffer, offset, stride);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.DOUBLE;
+        }
+
+        /**
+         * Returns the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @return the value.
+         */
+        public double get(int index) {
+            return buffer.getDouble(positionOf(index));
+        }
+
+        /**
+         * Sets the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @param value The value.
+         */
+        public void set(int index, double value) {
+            buffer.putDouble(positionOf(index), value);
+        }
+
+        /**
+         * Sets the value of every tile.
+         *
+         * @param value The value.
+         */
+        public void fill(double value) {
+            for (int index = 0; index < size(); index++) {
+                set(index, value);
+            }
+        }
+    }
+
+    /**
+     * A column of enum constants stored as their byte ordinal. The initial value of every tile is the first
+     * constant.
+     *
+     * @param <E> Class of the enum constants.
+     */
+    public static final class OfEnum<E extends Enum<E>> extends TileColumn {
+
+        /**
+         * Class of the enum constants.
+         */
+        private final Class<E> type;
+
+        /**
+         * The enum constants in ordinal order.
+         */
+        private final E[] constants;
+
+        OfEnum(String name, int size, ByteBuffer buffer, int offset, int stride, Class<E> type) {
+            super(name, size, buffer, offset, stride);
+            this.type = type;
+            this.constants = type.getEnumConstants();
+            if (constants.length > 256) {
+                throw new IllegalArgumentException("Too many constants in " + type.getName());
+            }
+        }
+
+        @Override
+        public Type getType() {
+            return Type.ENUM;
+        }
+
+        /**
+         * Returns the class of the enum constants.
+         *
+         * @return the class of the enum constants.
+         */
+        public Class<E> getEnumType() {
+            return type;
+        }
+
+        /**
+         * Returns the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @return the value.
+         */
+        public E get(int index) {
+            return constants[buffer.get(positionOf(index)) & 0xFF];
+        }
+
+        /**
+         * Sets the value at the specified index.
+         *
+         * @param index The flat tile index.
+         * @param value The value.
+         */
+        public void set(int index, E value) {
+            buffer.put(positionOf(index), (byte) value.ordinal());
+        }
+
+        /**
+         * Sets the value of every tile.
+         *
+         * @param value The value.
+         */
+        public void fill(E value) {
+            for (int index = 0; index < size(); index++) {
+                set(index, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.grid;
+
+/**
+ * The regular polygon tilings of grid maps. Each tiling describes which tiles share an edge with a tile.
+ * Adjacency may depend upon the parity of the tile's location, the odd rows of hex maps are offset and the
+ * triangles of tri maps alternately point up and down, so the tiling provides neighbor offsets for each
+ * parity.
+ *
+ * @see GridTileMap#getTiling()
+ * @see GridTileMap#forEachNeighbor(int, int, IntBinaryConsumer)
+ */
+public enum Tiling {
+    /**
+     * Hexagonal tiles with odd rows offset by half a tile.
+     */
+    HEX(0, 1,
+            new int[]{-1, 0, 1, 0, -1, -1, 0, -1, -1, 1, 0, 1},
+            new int[]{-1, 0, 1, 0, 0, -1, 1, -1, 0, 1, 1, 1}),
+    /**
+     * Square tiles.
+     */
+    RECT(0, 0,
+            new int[]{-1, 0, 1, 0, 0, -1, 0, 1},
+            new int[]{-1, 0, 1, 0, 0, -1, 0, 1}),
+    /**
+     * Triangular tiles alternately pointing up and down.
+     */
+    TRI(1, 1,
+            new int[]{-1, 0, 1, 0, 0, 1},
+            new int[]{-1, 0, 1, 0, 0, -1});
+
+    /**
+     * Mask of the bit of the horizontal index which contributes to the parity of a location.
+     */
+    private final int xParity;
+
+    /**
+     * Mask of the bit of the vertical index which contributes to the parity of a location.
+     */
+    private final int yParity;
+
+    /**
+     * Horizontal and vertical offsets of the neighbors of even and odd parity locations as pairs.
+     */
+    private final int[][] offsets;
+
+    Tiling(int xParity, int yParity, int[] even, int[] odd) {
+        this.xParity = xParity;
+        this.yParity = yParity;
+        this.offsets = new int[][]{even, odd};
+    }
+
+    /**
+     * Returns the largest number of neighbors of any tile.
+     *
+     * @return the largest number of neighbors of any tile.
+     */
+    public int getMaxNeighbors() {
+        return offsets[0].length / 2;
+    }
+
+    /**
+     * Returns the parity of a location, which selects the neighbor offsets of the location. For hex maps the
+     * parity is that of the row and for tri maps it is 1 for tiles pointing down.
+     *
+     * @param x The horizontal index.
+     * @param y The vertical index.
+     * @return The parity of the location, 0 or 1.
+     */
+    int parityOf(int x, int y) {
+        return ((x & xParity) ^ (y & yParity)) & 1;
+    }
+
+    /**
+     * Returns the horizontal and vertical offsets of the neighbors of locations with the specified parity,
+     * as pairs.
+     *
+     * @param parity The parity of the location.
+     * @return the offsets of the neighbors. The array must not be modified.
+     */
+    int[] offsets(int parity) {
+        return offsets[parity];
+    }
+}
@@ -26,6 +26,14 @@
  * {@link org.bondolo.tiles.grid.GridTileCoord coordinates}, and when part of a
  * {@link org.bondolo.tiles.TileMapView view} of tiles, may have a
  * {@link org.bondolo.tiles.grid.GridTileDimension} and a
- * local {@link org.bondolo.tiles.TileView view}.
+ * local {@link org.bondolo.tiles.TileView view}. A
+ * {@link org.bondolo.tiles.grid.GridMapRenderer grid renderer}, and the
+ * {@link org.bondolo.tiles.grid.GridMapView grid view} which uses it, map between points and
+ * {@link org.bondolo.tiles.grid.GridTileCoord#pack(int, int) packed}
+ * coordinates without allocation. A {@link org.bondolo.tiles.grid.ChunkedTileMap chunked map} is a sparse,
+ * effectively unbounded, alternative which stores tiles in chunks allocated as they are written. The
+ * {@link org.bondolo.tiles.grid.Tiling tiling} of a grid map describes the adjacency of its tiles, which maps
+ * enumerate through {@link org.bondolo.tiles.grid.GridTileMap#forEachNeighbor(int, int,
+ * org.bondolo.tiles.grid.IntBinaryConsumer) forEachNeighbor} and related methods.
  */
 package org.bondolo.tiles.grid;
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.hex;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import org.bondolo.tiles.grid.GridMapRenderer;
+import static org.bondolo.tiles.grid.GridTileCoord.NO_COORD;
+import static org.bondolo.tiles.grid.GridTileCoord.pack;
+import static org.bondolo.tiles.grid.GridTileCoord.unpackX;
+import static org.bondolo.tiles.grid.GridTileCoord.unpackY;
+
+/**
+ * Renders a map composed of hex tiles.
+ *
+ * @param <HT> Type of hex tiles in the map
+ */
+public class HexMapRenderer<HT extends HexTile> extends GridMapRenderer<HexTileMap<HT>, HT, HexTileDimension, HexTileCoord> {
+
+    /**
+     * Construct a new map renderer.
+     *
+     * @param map The map.
+     */
+    public HexMapRenderer(HexTileMap<HT> map) {
+        super(map);
+    }
+
+    @Override
+    public Rectangle2D getMapBounds(HexTileDimension dim) {
+        return new Rectangle2D.Double(0.0, 0.0,
+                dim.getA() * map.getXSize() + dim.getR() + 2,
+                (dim.getH() + dim.getSide()) * map.getYSize() + dim.getH() + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the hexagon width.
+     */
+    @Override
+    public double getColumnStep(HexTileDimension dim) {
+        return dim.getA();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the height of a row of interlocking hexagons.
+     */
+    @Override
+    public double getRowStep(HexTileDimension dim) {
+        return dim.getH() + dim.getSide();
+    }
+
+
+    @Override
+    public int[] visibleRange(Rectangle2D area, HexTileDimension dim) {
+        double rowHeight = dim.getH() + dim.getSide();
+
+        // A point lies within the tile of its section or the tile above and to the left.
+        int fromX = (int) Math.floor(area.getMinX() / dim.getA()) - 1;
+        int fromY = (int) Math.floor(area.getMinY() / rowHeight) - 1;
+        int toX = (int) Math.floor(area.getMaxX() / dim.getA()) + 1;
+        int toY = (int) Math.floor(area.getMaxY() / rowHeight) + 1;
+
+        return new int[] {fromX, fromY, toX, toY};
+    }
+
+    @Override
+    public long pointToCoordPacked(double x, double y, HexTileDimension dim) {
+        int sectionX = (int) (x / dim.getA());
+        int offsetX =  (int) (x % dim.getA());
+        int sectionY = (int) (y / (dim.getH() + dim.getSide()));
+        int offsetY = (int) (y % (dim.getH() + dim.getSide()));
+
+        double m = dim.getH() / dim.getR();
+        int coord_x;
+        int coord_y;
+
+        if (0 == (sectionY % 2)) {
+            // even row
+            if (offsetY < (dim.getH() - offsetX * m)) {
+                // left side
+                coord_x = sectionX - 1;
+                coord_y = sectionY - 1;
+            } else if (offsetY < (-dim.getH() + offsetX * m)) {
+                // right side
+                coord_x = sectionX;
+                coord_y = sectionY - 1;
+            } else {
+                // middle
+                coord_x = sectionX;
+                coord_y = sectionY;
+            }
+        } else {
+            // odd row
+            if (offsetX >= dim.getR()) {
+                // right
+                if (offsetY < (2 * dim.getH() - offsetX * m)) {
+                    // top
+                    coord_x = sectionX;
+                    coord_y = sectionY - 1;
+                } else {
+                    // bottom
+                    coord_x = sectionX;
+                    coord_y = sectionY;
+                }
+            } else {
+                // left
+                if (offsetY < (offsetX * m)) {
+                    // top
+                    coord_x = sectionX;
+                    coord_y = sectionY - 1;
+                } else {
+                    // bottom
+                    coord_x = sectionX - 1;
+                    coord_y = sectionY;
+                }
+            }
+        }
+
+        if ((coord_x < 0) || (coord_x >= map.getXSize()) ||
+                (coord_y < 0) || (coord_y >= map.getYSize())) {
+            // not on the map
+            return NO_COORD;
+        } else {
+            // turn it into a tile coordinate.
+            return pack(coord_x, coord_y);
+        }
+    }
+
+    @Override
+    public Point2D coordToPoint(long coord, HexTileDimension dim, Point2D into) {
+        int coord_x = unpackX(coord);
+        int coord_y = unpackY(coord);
+
+        double pixel_x = coord_x * 2 * dim.getR() + (coord_y & 1) * dim.getR();
+        double pixel_y = coord_y * (dim.getH() + dim.getSide());
+
+        into.setLocation(pixel_x, pixel_y);
+
+        return into;
+    }
+}
@@ -21,12 +21,12 @@
  */
 package org.bondolo.tiles.hex;
 
+import org.bondolo.tiles.TileBatch;
 import org.bondolo.tiles.grid.GridTile;
 import static java.awt.Color.LIGHT_GRAY;
 import static java.awt.Color.black;
+import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.geom.Path2D;
-import static java.awt.geom.Path2D.WIND_NON_ZERO;
 import java.awt.geom.Point2D;
 
 /**
@@ -61,18 +61,51 @@ public class HexTile extends GridTile<HexTileCoord, HexTileDimension> {
      */
     @Override
     public void draw(Graphics2D g, Point2D origin, HexTileDimension dim, boolean highlight) {
-        var p = new Path2D.Double(WIND_NON_ZERO, 16);
+        drawStyle(g, origin, dim, highlight);
+
+        super.draw(g, origin, dim, highlight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Draws the tile label in black.
+     */
+    @Override
+    public void drawDetail(Graphics2D g, Point2D origin, HexTileDimension dim, boolean highlight) {
+        g.setColor(black);
+
+        super.drawDetail(g, origin, dim, highlight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the class of the tile or, for subclasses, which may draw a different style, {@code null}.
+     * Subclasses which share styles must override.
+     */
+    @Override
+    public Object getStyleKey() {
+        if (HexTile.class != getClass()) {
+            // subclasses may draw a different style
+            return null;
+        }
+
+        return getClass();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Draws the outline of the tile in black and optionally fills it with light gray if highlighted
+     */
+    @Override
+    public void drawStyle(Graphics2D g, Point2D origin, HexTileDimension dim, boolean highlight) {
+        var p = dim.getOutline();
         double x = origin.getX();
         double y = origin.getY();
 
-        p.moveTo(x, y + dim.getH());
-        p.lineTo(x + dim.getR(), y);
-        p.lineTo(x + dim.getA(), y + dim.getH());
-        p.lineTo(x + dim.getA(), y + dim.getH() + dim.getSide());
-        p.lineTo(x + dim.getR(), y + dim.getB());
-        p.lineTo(x, y + dim.getH() + dim.getSide());
-        p.closePath();
-
+        g.translate(x, y);
         if (highlight) {
             g.setColor(LIGHT_GRAY);
             g.fill(p);
@@ -80,7 +113,58 @@ public class HexTile extends GridTile<HexTileCoord, HexTileDimension> {
 
         g.setColor(black);
         g.draw(p);
+        g.translate(-x, -y);
+    }
 
-        super.draw(g, origin, dim, highlight);
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns light gray if highlighted otherwise {@code null}.
+     */
+    @Override
+    public Color getFillColor(boolean highlight) {
+        return highlight ? LIGHT_GRAY : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Fills the tile with the {@link #getFillColor(boolean) fill color}, if any.
+     */
+    @Override
+    public void drawFill(Graphics2D g, Point2D origin, HexTileDimension dim, boolean highlight) {
+        var fill = getFillColor(highlight);
+        if (null != fill) {
+            var p = dim.getOutline();
+            double x = origin.getX();
+            double y = origin.getY();
+
+            g.translate(x, y);
+            g.setColor(fill);
+            g.fill(p);
+            g.translate(-x, -y);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Batches the outline of the tile in black and, if highlighted, its light gray fill. Subclasses
+     * are not batched, and are drawn individually, unless they override this method.
+     */
+    @Override
+    public boolean batch(TileBatch batch, Point2D origin, HexTileDimension dim, boolean highlight) {
+        if (HexTile.class != getClass()) {
+            // subclasses may draw a different style
+            return false;
+        }
+
+        var p = dim.getOutline();
+        if (highlight) {
+            batch.fill(p, origin.getX(), origin.getY(), LIGHT_GRAY);
+        }
+        batch.draw(p, origin.getX(), origin.getY(), black);
+
+        return true;
     }
 }
@@ -21,6 +21,9 @@
  */
 package org.bondolo.tiles.hex;
 
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import static java.awt.geom.Path2D.WIND_NON_ZERO;
 import static java.lang.Math.PI;
 import static java.lang.String.format;
 import org.bondolo.tiles.grid.GridTileDimension;
@@ -48,6 +51,11 @@ public final class HexTileDimension extends GridTileDimension {
     private final double a;
     private final int b;
 
+    /**
+     * Outline of a tile with its origin at (0,0).
+     */
+    private final Shape outline;
+
     /**
      * Construct a new hex tile dimension object for the specified scale.
      *
@@ -60,6 +68,16 @@ public final class HexTileDimension extends GridTileDimension {
         this.r = s * Math.cos(PI / 6.0); // 30 degrees
         this.a = Math.scalb(r, 1); // same as 2 * r
         this.b = side * 2; // same as side + 2 * h;
+
+        var p = new Path2D.Double(WIND_NON_ZERO, 8);
+        p.moveTo(0, h);
+        p.lineTo(r, 0);
+        p.lineTo(a, h);
+        p.lineTo(a, h + side);
+        p.lineTo(r, b);
+        p.lineTo(0, h + side);
+        p.closePath();
+        this.outline = p;
     }
 
     @Override
@@ -125,4 +143,14 @@ public final class HexTileDimension extends GridTileDimension {
     public int getB() {
         return b;
     }
+
+    /**
+     * Returns the outline of a tile with its origin at (0,0). The outline is shared and must not be
+     * modified.
+     *
+     * @return the outline of a tile.
+     */
+    public Shape getOutline() {
+        return outline;
+    }
 }
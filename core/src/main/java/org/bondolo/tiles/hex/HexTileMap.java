@@ -22,6 +22,8 @@
 package org.bondolo.tiles.hex;
 
 import org.bondolo.tiles.grid.GridTileMap;
+import org.bondolo.tiles.grid.TileFactory;
+import org.bondolo.tiles.grid.Tiling;
 
 /**
  *  A Cartesian grid map composed of hexagonal tiles.
@@ -38,4 +40,20 @@ public class HexTileMap<T extends HexTile> extends GridTileMap<T, HexTileCoord,
     public HexTileMap(T tiles[][]) {
         super(tiles);
     }
+
+    /**
+     * Construct a new map of tiles which are created on first access.
+     *
+     * @param xSize The horizontal size of the map.
+     * @param ySize The vertical size of the map.
+     * @param factory Creates the tile at each location.
+     */
+    public HexTileMap(int xSize, int ySize, TileFactory<? extends T> factory) {
+        super(xSize, ySize, factory);
+    }
+
+    @Override
+    public Tiling getTiling() {
+        return Tiling.HEX;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Writes and reads the class and constant names of the enum constants of columns, so that stored ordinals
+ * are only interpreted by a compatible enum class.
+ */
+final class EnumSchema {
+
+    /**
+     * no instances
+     */
+    private EnumSchema() {
+    }
+
+    /**
+     * Write the class name and constant names of an enum.
+     *
+     * @param out The destination.
+     * @param type The class of the enum constants.
+     * @throws IOException for errors writing.
+     */
+    static void write(DataOutput out, Class<? extends Enum<?>> type) throws IOException {
+        var constants = type.getEnumConstants();
+        out.writeUTF(type.getName());
+        out.writeInt(constants.length);
+        for (var constant : constants) {
+            out.writeUTF(constant.name());
+        }
+    }
+
+    /**
+     * Read the class and constant names of an enum and resolve the class. The constants of the class
+     * must begin with the constants which were written, so that ordinals are unchanged.
+     *
+     * @param in The source.
+     * @return the class of the enum constants.
+     * @throws IOException for errors reading or if the class is not found or is incompatible.
+     */
+    @SuppressWarnings("unchecked")
+    static Class<? extends Enum<?>> read(DataInput in) throws IOException {
+        var className = in.readUTF();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid constant count for " + className);
+        }
+        var names = new ArrayList<String>(Math.min(count, 256));
+        for (int constant = 0; constant < count; constant++) {
+            names.add(in.readUTF());
+        }
+
+        Class<?> found;
+        try {
+            var loader = Thread.currentThread().getContextClassLoader();
+            found = Class.forName(className, false, (null != loader) ? loader : EnumSchema.class.getClassLoader());
+        } catch (ClassNotFoundException notFound) {
+            throw new IOException("Enum class not found: " + className, notFound);
+        }
+        if (!found.isEnum()) {
+            throw new IOException("Not an enum class: " + className);
+        }
+        var constants = found.getEnumConstants();
+        if (constants.length < count) {
+            throw new IOException("Incompatible enum class: " + className);
+        }
+        for (int constant = 0; constant < count; constant++) {
+            if (!((Enum<?>) constants[constant]).name().equals(names.get(constant))) {
+                throw new IOException("Incompatible enum class: " + className);
+            }
+        }
+
+        return (Class<? extends Enum<?>>) found;
+    }
+}
@@ -0,0 +1,584 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.bondolo.tiles.grid.GridTile;
+import org.bondolo.tiles.grid.GridTileCoord;
+import org.bondolo.tiles.grid.GridTileDimension;
+import org.bondolo.tiles.grid.GridTileMap;
+import org.bondolo.tiles.grid.TileCodec;
+import org.bondolo.tiles.grid.TileColumn;
+import org.bondolo.tiles.grid.TileFactory;
+import org.bondolo.tiles.grid.Tiling;
+
+/**
+ * Streaming binary serialization of {@link GridTileMap grid maps} through channels using bounded buffers, so
+ * that maps of any size are written and read with constant memory beyond the map itself.
+ *
+ * <p>
+ * A stream contains a magic, the tiling and size of the map, the state of each tile in flat tile index order
+ * as written by a {@link TileCodec tile codec}, and the {@link org.bondolo.tiles.grid.TileAttributes
+ * attribute} columns of the map. Integers are written as unsigned variable length quantities, seven bits per
+ * byte, least significant first. Runs of tiles with identical state, and runs of identical column values, are
+ * written once with a count so that maps which are mostly uniform are small.
+ */
+public final class TileMapCodec {
+
+    /**
+     * Constructs the map into which a stream is read.
+     *
+     * @param <M> Class of the map.
+     * @param <T> Class of the tiles of the map.
+     */
+    @FunctionalInterface
+    public interface MapFactory<M, T> {
+
+        /**
+         * Construct a new map whose tiles are created by the factory. The map should create its tiles lazily,
+         * or otherwise column by column, as tiles are read in flat tile index order.
+         *
+         * @param xSize The horizontal size of the map.
+         * @param ySize The vertical size of the map.
+         * @param factory Creates the tile at each location.
+         * @return The new map.
+         */
+        M create(int xSize, int ySize, TileFactory<T> factory);
+    }
+
+    /**
+     * Creates a labelled tile.
+     *
+     * @param <T> Class of tiles created.
+     */
+    @FunctionalInterface
+    public interface LabeledTileFactory<T> {
+
+        /**
+         * Create the tile at the specified location.
+         *
+         * @param x The horizontal index of the tile.
+         * @param y The vertical index of the tile.
+         * @param label The label of the tile or null if unlabeled.
+         * @return A new tile.
+         */
+        T create(int x, int y, String label);
+    }
+
+    /**
+     * Identifies tile map streams.
+     */
+    private static final byte[] MAGIC = {'T', 'I', 'L', 'E', 'S', 'T', 'R', 'M'};
+
+    /**
+     * Version of the format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Size of the buffers used for writing and reading.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Upper bound of the length of a tile record or column schema, which protects against corrupted streams.
+     */
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    /**
+     * no instances
+     */
+    private TileMapCodec() {
+    }
+
+    /**
+     * Returns a tile codec which writes and reads only the labels of tiles.
+     *
+     * @param <T> Class of tiles.
+     * @param factory Creates the tiles as they are read.
+     * @return A tile codec for labels.
+     */
+    public static <T extends GridTile<?, ?>> TileCodec<T> labels(LabeledTileFactory<? extends T> factory) {
+        return new TileCodec<>() {
+            @Override
+            public void write(T tile, DataOutput out) throws IOException {
+                var label = tile.getLabel();
+                out.writeBoolean(null != label);
+                if (null != label) {
+                    out.writeUTF(label);
+                }
+            }
+
+            @Override
+            public T read(int x, int y, DataInput in) throws IOException {
+                return factory.create(x, y, in.readBoolean() ? in.readUTF() : null);
+            }
+        };
+    }
+
+    /**
+     * Write a map to a channel. Tiles of lazily constructed maps are created as they are written.
+     *
+     * @param <T> Class of the tiles of the map.
+     * @param <C> Class of the tile coordinates of the map.
+     * @param <D> Class of the tile dimensions of the map.
+     * @param map The map to write.
+     * @param tiles Writes the state of each tile.
+     * @param channel The destination channel, which must be in blocking mode and is not closed.
+     * @throws IOException for errors writing to the channel or if the channel is not in blocking mode.
+     */
+    public static <T extends GridTile<C, D>, C extends GridTileCoord, D extends GridTileDimension> void write(
+            GridTileMap<T, C, D> map, TileCodec<? super T> tiles, WritableByteChannel channel) throws IOException {
+        var out = new Encoder(channel);
+        out.bytes(MAGIC, 0, MAGIC.length);
+        out.varint(VERSION);
+        out.string(map.getTiling().name());
+        out.varint(map.getXSize());
+        out.varint(map.getYSize());
+
+        // tiles as runs of identical records
+        var record = new Record();
+        var previous = new Record();
+        var data = new DataOutputStream(record);
+        long run = 0;
+        for (int x = 0; x < map.getXSize(); x++) {
+            for (int y = 0; y < map.getYSize(); y++) {
+                record.reset();
+                tiles.write(map.getTile(x, y), data);
+                data.flush();
+                if ((0 != run) && !record.sameAs(previous)) {
+                    out.varint(run);
+                    out.varint(previous.size());
+                    out.bytes(previous.bytes(), 0, previous.size());
+                    run = 0;
+                }
+                if (0 == run) {
+                    var swap = previous;
+                    previous = record;
+                    record = swap;
+                    data = new DataOutputStream(record);
+                }
+                run++;
+            }
+        }
+        out.varint(run);
+        out.varint(previous.size());
+        out.bytes(previous.bytes(), 0, previous.size());
+
+        // attribute columns as runs of identical values
+        var columns = map.getAttributes().getColumns();
+        out.varint(columns.size());
+        for (var column : columns) {
+            var schema = new ByteArrayOutputStream();
+            try (var schemaOut = new DataOutputStream(schema)) {
+                schemaOut.writeUTF(column.getName());
+                schemaOut.writeUTF(column.getType().name());
+                if (column instanceof TileColumn.OfEnum) {
+                    EnumSchema.write(schemaOut, ((TileColumn.OfEnum<?>) column).getEnumType());
+                }
+            }
+            out.varint(schema.size());
+            out.bytes(schema.toByteArray(), 0, schema.size());
+
+            int size = column.size();
+            for (int index = 0; index < size;) {
+                long bits = column.getBits(index);
+                int end = index + 1;
+                while ((end < size) && (column.getBits(end) == bits)) {
+                    end++;
+                }
+                out.varint(end - index);
+                out.varint(bits);
+                index = end;
+            }
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Read a map from a channel. The tiles are created as they are read, directly into the new map, which is
+     * then {@link GridTileMap#materialize() materialized} so that it does not retain the reader or the channel.
+     *
+     * @param <M> Class of the map.
+     * @param <T> Class of the tiles of the map.
+     * @param <C> Class of the tile coordinates of the map.
+     * @param <D> Class of the tile dimensions of the map.
+     * @param channel The source channel, which must be in blocking mode and is not closed.
+     * @param maps Constructs the map.
+     * @param tiles Reads the state of each tile and creates it.
+     * @return The new map.
+     * @throws IOException for errors reading from the channel, if the channel is not in blocking mode or if
+     * the stream is not a valid tile map stream or is of a different tiling than the map.
+     */
+    public static <M extends GridTileMap<T, C, D>, T extends GridTile<C, D>, C extends GridTileCoord, D extends GridTileDimension> M read(
+            ReadableByteChannel channel, MapFactory<M, T> maps, TileCodec<? extends T> tiles) throws IOException {
+        var in = new Decoder(channel);
+        var magic = new byte[MAGIC.length];
+        in.bytes(magic, 0, magic.length);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IOException("Not a tile map stream");
+        }
+        long version = in.varint();
+        if (VERSION != version) {
+            throw new IOException("Unsupported tile map stream version: " + version);
+        }
+        Tiling tiling;
+        try {
+            tiling = Tiling.valueOf(in.string());
+        } catch (IllegalArgumentException invalid) {
+            throw new IOException("Unknown tiling", invalid);
+        }
+        int xSize = in.length(Integer.MAX_VALUE);
+        int ySize = in.length(Integer.MAX_VALUE);
+        if ((0 == xSize) || (0 == ySize) || ((long) xSize * ySize > Integer.MAX_VALUE)) {
+            throw new IOException("Invalid map size " + xSize + "x" + ySize);
+        }
+
+        var reader = new TileReader<T>(in, tiles, ySize);
+        M map;
+        try {
+            map = maps.create(xSize, ySize, reader);
+            if (map.getTiling() != tiling) {
+                throw new IOException("Stream of " + tiling + " tiles read into " + map.getTiling() + " map");
+            }
+            // create the tiles in the order they were written
+            for (int x = 0; x < xSize; x++) {
+                for (int y = 0; y < ySize; y++) {
+                    map.getTile(x, y);
+                }
+            }
+            // release the reader, and with it the channel, from the map
+            map.materialize();
+        } catch (UncheckedIOException failed) {
+            throw failed.getCause();
+        }
+        if (0 != reader.run) {
+            throw new IOException("Excess tiles in stream");
+        }
+
+        var attributes = map.getAttributes();
+        int size = attributes.size();
+        int count = in.length(Integer.MAX_VALUE);
+        var schema = new byte[0];
+        for (int each = 0; each < count; each++) {
+            int length = in.length(MAX_RECORD_LENGTH);
+            if (schema.length < length) {
+                schema = new byte[length];
+            }
+            in.bytes(schema, 0, length);
+            TileColumn column;
+            try (var schemaIn = new DataInputStream(new ByteArrayInputStream(schema, 0, length))) {
+                var name = schemaIn.readUTF();
+                var type = TileColumn.Type.valueOf(schemaIn.readUTF());
+                var enumType = (TileColumn.Type.ENUM == type) ? EnumSchema.read(schemaIn) : null;
+                long capacity = (long) size * type.getWidth();
+                if (capacity > Integer.MAX_VALUE) {
+                    throw new IOException("Too many tiles for " + type + " column " + name);
+                }
+                var buffer = ByteBuffer.allocate((int) capacity).order(ByteOrder.nativeOrder());
+                column = attributes.addColumn(TileColumn.of(name, type, enumType, size, buffer, 0, type.getWidth()));
+            } catch (IllegalArgumentException invalid) {
+                throw new IOException("Invalid column", invalid);
+            }
+
+            long limit = (TileColumn.Type.ENUM == column.getType())
+                    ? ((TileColumn.OfEnum<?>) column).getEnumType().getEnumConstants().length
+                    : Long.MAX_VALUE;
+            for (int index = 0; index < size;) {
+                int run = in.length(size - index);
+                long bits = in.varint();
+                if ((0 == run) || (Long.compareUnsigned(bits, limit) >= 0)) {
+                    throw new IOException("Invalid values of column " + column.getName());
+                }
+                for (int end = index + run; index < end; index++) {
+                    column.setBits(index, bits);
+                }
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * Reads tiles from the stream as the map creates them.
+     *
+     * @param <T> Class of the tiles.
+     */
+    private static final class TileReader<T> implements TileFactory<T> {
+
+        /**
+         * The stream.
+         */
+        private final Decoder in;
+
+        /**
+         * Reads the state of each tile and creates it.
+         */
+        private final TileCodec<? extends T> tiles;
+
+        /**
+         * Vertical size of the map.
+         */
+        private final int ySize;
+
+        /**
+         * Flat index of the next tile to be read.
+         */
+        private int next;
+
+        /**
+         * Number of tiles remaining in the current run.
+         */
+        private long run;
+
+        /**
+         * The record of the current run.
+         */
+        private final RecordInput record = new RecordInput();
+
+        /**
+         * Reads the record of the current run.
+         */
+        private final DataInputStream data = new DataInputStream(record);
+
+        TileReader(Decoder in, TileCodec<? extends T> tiles, int ySize) {
+            this.in = in;
+            this.tiles = tiles;
+            this.ySize = ySize;
+        }
+
+        @Override
+        public T create(int x, int y) {
+            if ((long) x * ySize + y != next) {
+                throw new IllegalStateException("Tiles must be created in flat tile index order");
+            }
+            next++;
+
+            try {
+                if (0 == run) {
+                    run = in.varint();
+                    if (0 == run) {
+                        throw new IOException("Invalid tile run");
+                    }
+                    record.load(in, in.length(MAX_RECORD_LENGTH));
+                }
+                run--;
+
+                record.rewind();
+                return tiles.read(x, y, data);
+            } catch (IOException failed) {
+                throw new UncheckedIOException(failed);
+            }
+        }
+    }
+
+    /**
+     * A record of the state of a tile.
+     */
+    private static final class Record extends ByteArrayOutputStream {
+
+        byte[] bytes() {
+            return buf;
+        }
+
+        boolean sameAs(Record other) {
+            return Arrays.equals(buf, 0, count, other.buf, 0, other.count);
+        }
+    }
+
+    /**
+     * A record of the state of a tile which is read repeatedly for each tile of a run.
+     */
+    private static final class RecordInput extends ByteArrayInputStream {
+
+        RecordInput() {
+            super(new byte[64]);
+        }
+
+        void load(Decoder in, int length) throws IOException {
+            if (buf.length < length) {
+                buf = new byte[length];
+            }
+            in.bytes(buf, 0, length);
+            count = length;
+        }
+
+        void rewind() {
+            pos = 0;
+        }
+    }
+
+    /**
+     * Writes to a channel through a bounded buffer.
+     */
+    private static final class Encoder {
+
+        /**
+         * The destination channel.
+         */
+        private final WritableByteChannel channel;
+
+        /**
+         * Bytes not yet written to the channel.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        Encoder(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void varint(long value) throws IOException {
+            if (buffer.remaining() < Varints.MAX_LENGTH) {
+                drain();
+            }
+            Varints.put(buffer, value);
+        }
+
+        void bytes(byte[] from, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(from, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        void string(String value) throws IOException {
+            var encoded = value.getBytes(StandardCharsets.UTF_8);
+            varint(encoded.length);
+            bytes(encoded, 0, encoded.length);
+        }
+
+        void flush() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                if (0 == channel.write(buffer)) {
+                    throw new IOException("Channel is not in blocking mode");
+                }
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads from a channel through a bounded buffer.
+     */
+    private static final class Decoder {
+
+        /**
+         * The source channel.
+         */
+        private final ReadableByteChannel channel;
+
+        /**
+         * Bytes read from the channel and not yet decoded.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+
+        Decoder(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        long varint() throws IOException {
+            while (!Varints.isComplete(buffer) && fill()) {
+                // read until the buffer holds the entire quantity or the stream ends
+            }
+
+            return Varints.get(buffer);
+        }
+
+        /**
+         * Read a length or count which is no greater than the provided maximum.
+         *
+         * @param max The maximum value.
+         * @return The value.
+         * @throws IOException for errors reading or if the value is greater than the maximum.
+         */
+        int length(int max) throws IOException {
+            long value = varint();
+            if ((value < 0) || (value > max)) {
+                throw new IOException("Invalid length: " + value);
+            }
+
+            return (int) value;
+        }
+
+        void bytes(byte[] into, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining() && !fill()) {
+                    throw new EOFException("Unexpected end of tile map stream");
+                }
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.get(into, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        String string() throws IOException {
+            var encoded = new byte[length(MAX_RECORD_LENGTH)];
+            bytes(encoded, 0, encoded.length);
+
+            return new String(encoded, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Read more bytes from the channel, after those not yet decoded.
+         *
+         * @return true if bytes were read or false at the end of the stream.
+         * @throws IOException for errors reading or if the channel is not in blocking mode.
+         */
+        private boolean fill() throws IOException {
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (0 == read) {
+                // a blocking channel reads at least one byte, rather than spin wait for a non-blocking one
+                throw new IOException("Channel is not in blocking mode");
+            }
+
+            return read > 0;
+        }
+    }
+}
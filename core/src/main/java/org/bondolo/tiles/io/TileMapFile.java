@@ -0,0 +1,455 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.bondolo.tiles.grid.GridTileMap;
+import org.bondolo.tiles.grid.TileAttributes;
+import org.bondolo.tiles.grid.TileColumn;
+import org.bondolo.tiles.grid.Tiling;
+
+/**
+ * A memory-mapped file of the {@link TileAttributes attributes} of a grid map. The file begins with a header
+ * describing the tiling, the size of the map and the schema of the columns, followed by a fixed-width record
+ * for each tile in flat tile index order. The records are mapped with {@link FileChannel#map} so opening a
+ * file reads only the header, regardless of the size of the map, and the values of the
+ * {@link #getColumns() columns} are read from, and edits written to, the page cache. Several processes may
+ * map the same file. Only the attribute columns are stored; the tiles of a map keep their own state, which
+ * is saved by the {@link TileMapCodec codec}.
+ *
+ * <p>
+ * The header is written in big-endian order: an eight byte magic, the format version, the length of the
+ * remaining header, then the tiling name, the horizontal and vertical sizes, the record width and the
+ * columns. Each column is described by its name, type and offset within the record and, for enum columns,
+ * the enum class name and constant names. Records begin at the next multiple of eight bytes and are
+ * little-endian. The records of a file are limited to 2GiB as they are mapped as a single buffer.
+ */
+public final class TileMapFile implements Closeable {
+
+    /**
+     * Identifies tile map files.
+     */
+    private static final byte[] MAGIC = {'T', 'I', 'L', 'E', 'M', 'A', 'P', 0};
+
+    /**
+     * Version of the format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Length of the magic, version and header length which precede the header.
+     */
+    private static final int PREFIX_LENGTH = MAGIC.length + Integer.BYTES + Integer.BYTES;
+
+    /**
+     * Alignment of the first record.
+     */
+    private static final int RECORD_ALIGNMENT = 8;
+
+    /**
+     * Upper bound of the length of the header, which protects against corrupted files.
+     */
+    private static final int MAX_HEADER_LENGTH = 1 << 20;
+
+    /**
+     * The open file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The mapped records of the tiles, shared by the columns.
+     */
+    private final MappedByteBuffer records;
+
+    /**
+     * The tiling of the map.
+     */
+    private final Tiling tiling;
+
+    /**
+     * Horizontal size of the map in tiles.
+     */
+    private final int xSize;
+
+    /**
+     * Vertical size of the map in tiles.
+     */
+    private final int ySize;
+
+    /**
+     * The columns over the mapped records.
+     */
+    private final List<TileColumn> columns;
+
+    private TileMapFile(FileChannel channel, MappedByteBuffer records, Tiling tiling, int xSize, int ySize,
+            List<TileColumn> columns) {
+        this.channel = channel;
+        this.records = records;
+        this.tiling = tiling;
+        this.xSize = xSize;
+        this.ySize = ySize;
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Create a new file containing the attributes of a map.
+     *
+     * @param file The file to create, which must not exist.
+     * @param map The map whose attributes are written.
+     * @return The new file, opened for writing.
+     * @throws IOException for errors creating the file.
+     */
+    public static TileMapFile create(Path file, GridTileMap<?, ?, ?> map) throws IOException {
+        return create(file, map.getTiling(), map.getXSize(), map.getYSize(), map.getAttributes());
+    }
+
+    /**
+     * Create a new file with the schema, and the values, of the provided attributes.
+     *
+     * @param file The file to create, which must not exist.
+     * @param tiling The tiling of the map.
+     * @param xSize The horizontal size of the map.
+     * @param ySize The vertical size of the map.
+     * @param attributes The attributes whose columns are written.
+     * @return The new file, opened for writing.
+     * @throws IOException for errors creating the file.
+     * @throws IllegalArgumentException if the size of the attributes does not match the size of the map or
+     * the records would exceed 2GiB.
+     */
+    public static TileMapFile create(Path file, Tiling tiling, int xSize, int ySize, TileAttributes attributes)
+            throws IOException {
+        Objects.requireNonNull(tiling, "Null tiling");
+        if ((xSize <= 0) || (ySize <= 0) || ((long) xSize * ySize != attributes.size())) {
+            throw new IllegalArgumentException("Attributes do not match map size " + xSize + "x" + ySize);
+        }
+
+        var sources = attributes.getColumns();
+        var offsets = new int[sources.size()];
+        int recordWidth = 0;
+        for (int column = 0; column < offsets.length; column++) {
+            offsets[column] = recordWidth;
+            recordWidth += sources.get(column).getType().getWidth();
+        }
+        long length = (long) attributes.size() * recordWidth;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Records too large to map: " + length);
+        }
+
+        var header = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(header)) {
+            out.writeUTF(tiling.name());
+            out.writeInt(xSize);
+            out.writeInt(ySize);
+            out.writeInt(recordWidth);
+            out.writeInt(sources.size());
+            for (int column = 0; column < offsets.length; column++) {
+                var source = sources.get(column);
+                out.writeUTF(source.getName());
+                out.writeUTF(source.getType().name());
+                out.writeInt(offsets[column]);
+                if (source instanceof TileColumn.OfEnum) {
+                    EnumSchema.write(out, ((TileColumn.OfEnum<?>) source).getEnumType());
+                }
+            }
+        }
+
+        var prefix = ByteBuffer.allocate(PREFIX_LENGTH);
+        prefix.put(MAGIC).putInt(VERSION).putInt(header.size()).flip();
+        long recordsOffset = align(PREFIX_LENGTH + header.size());
+
+        var channel = FileChannel.open(file, CREATE_NEW, READ, WRITE);
+        try {
+            writeFully(channel, prefix, 0);
+            writeFully(channel, ByteBuffer.wrap(header.toByteArray()), PREFIX_LENGTH);
+
+            // mapping beyond the end of the file extends it
+            var records = channel.map(FileChannel.MapMode.READ_WRITE, recordsOffset, length);
+            records.order(ByteOrder.LITTLE_ENDIAN);
+            var columns = new ArrayList<TileColumn>(offsets.length);
+            for (int column = 0; column < offsets.length; column++) {
+                var source = sources.get(column);
+                var mapped = TileColumn.of(source.getName(), source.getType(), enumType(source),
+                        attributes.size(), records, offsets[column], recordWidth);
+                mapped.copyFrom(source);
+                columns.add(mapped);
+            }
+
+            return new TileMapFile(channel, records, tiling, xSize, ySize, columns);
+        } catch (IOException | RuntimeException failed) {
+            channel.close();
+            throw failed;
+        }
+    }
+
+    /**
+     * Open an existing file. Only the header is read.
+     *
+     * @param file The file to open.
+     * @param writable If true then edits to the columns are written to the file otherwise the columns are
+     * read only.
+     * @return The opened file.
+     * @throws IOException for errors reading the file or if the file is not a valid tile map file.
+     */
+    public static TileMapFile open(Path file, boolean writable) throws IOException {
+        var channel = writable
+                ? FileChannel.open(file, READ, WRITE)
+                : FileChannel.open(file, READ);
+        try {
+            var prefix = ByteBuffer.allocate(PREFIX_LENGTH);
+            readFully(channel, prefix, 0);
+            var magic = new byte[MAGIC.length];
+            prefix.flip().get(magic);
+            if (!Arrays.equals(MAGIC, magic)) {
+                throw new IOException("Not a tile map file: " + file);
+            }
+            int version = prefix.getInt();
+            if (VERSION != version) {
+                throw new IOException("Unsupported tile map file version: " + version);
+            }
+            int headerLength = prefix.getInt();
+            if ((headerLength < 0) || (headerLength > MAX_HEADER_LENGTH)) {
+                throw new IOException("Invalid header length: " + headerLength);
+            }
+            var header = ByteBuffer.allocate(headerLength);
+            readFully(channel, header, PREFIX_LENGTH);
+
+            try (var in = new DataInputStream(new ByteArrayInputStream(header.array()))) {
+                var tiling = Tiling.valueOf(in.readUTF());
+                int xSize = in.readInt();
+                int ySize = in.readInt();
+                int recordWidth = in.readInt();
+                int count = in.readInt();
+                long size = (long) xSize * ySize;
+                long length = size * recordWidth;
+                long recordsOffset = align(PREFIX_LENGTH + headerLength);
+                if ((xSize <= 0) || (ySize <= 0) || (size > Integer.MAX_VALUE) || (recordWidth < 0)
+                        || (count < 0)) {
+                    throw new IOException("Invalid tile map file header: " + file);
+                }
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("Records too large to map: " + length);
+                }
+                if (channel.size() < recordsOffset + length) {
+                    throw new IOException("Truncated tile map file: " + file);
+                }
+
+                var records = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                        recordsOffset, length);
+                records.order(ByteOrder.LITTLE_ENDIAN);
+                var columns = new ArrayList<TileColumn>(count);
+                for (int column = 0; column < count; column++) {
+                    var name = in.readUTF();
+                    var type = TileColumn.Type.valueOf(in.readUTF());
+                    int offset = in.readInt();
+                    var enumType = (TileColumn.Type.ENUM == type) ? EnumSchema.read(in) : null;
+                    columns.add(TileColumn.of(name, type, enumType, (int) size, records, offset, recordWidth));
+                }
+
+                return new TileMapFile(channel, records, tiling, xSize, ySize, columns);
+            } catch (IllegalArgumentException invalid) {
+                throw new IOException("Invalid tile map file header: " + file, invalid);
+            }
+        } catch (IOException | RuntimeException failed) {
+            channel.close();
+            throw failed;
+        }
+    }
+
+    /**
+     * Returns the tiling of the map.
+     *
+     * @return the tiling of the map.
+     */
+    public Tiling getTiling() {
+        return tiling;
+    }
+
+    /**
+     * Returns the horizontal size of the map.
+     *
+     * @return the horizontal size of the map.
+     */
+    public int getXSize() {
+        return xSize;
+    }
+
+    /**
+     * Returns the vertical size of the map.
+     *
+     * @return the vertical size of the map.
+     */
+    public int getYSize() {
+        return ySize;
+    }
+
+    /**
+     * Returns the flat index of the tile at the specified location.
+     *
+     * @param x The horizontal index of the tile.
+     * @param y The vertical index of the tile.
+     * @return The flat index of the tile.
+     * @throws IllegalArgumentException if x or y is not in range
+     * @see GridTileMap#indexOf(int, int)
+     */
+    public int indexOf(int x, int y) {
+        if ((x < 0) || (x >= xSize)) {
+            throw new IllegalArgumentException("invalid X coordinate");
+        }
+
+        if ((y < 0) || (y >= ySize)) {
+            throw new IllegalArgumentException("invalid Y coordinate");
+        }
+
+        return x * ySize + y;
+    }
+
+    /**
+     * Returns the columns over the mapped records, in the order of the schema.
+     *
+     * @return the columns.
+     */
+    public List<TileColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the column with the specified name.
+     *
+     * @param name The name of the column.
+     * @return the column or empty result if there is no column with the name.
+     */
+    public Optional<TileColumn> getColumn(String name) {
+        return columns.stream().filter(column -> column.getName().equals(name)).findFirst();
+    }
+
+    /**
+     * Add the mapped columns to the attributes of a map so that code reading and writing those
+     * {@link GridTileMap#getAttributes() attributes} of the map does so through the file. Tiles keep their
+     * own state; only values accessed through the columns are stored in the file. Either all of the mapped
+     * columns are added or, if any of them can not be added, none are.
+     *
+     * @param map The map, which must have the same tiling and size as the file.
+     * @throws IllegalArgumentException if the tiling or size of the map differ or the map already has a
+     * column with the name of one of the mapped columns.
+     */
+    public void attachTo(GridTileMap<?, ?, ?> map) {
+        if ((map.getTiling() != tiling) || (map.getXSize() != xSize) || (map.getYSize() != ySize)) {
+            throw new IllegalArgumentException("Map does not match file " + tiling + " " + xSize + "x" + ySize);
+        }
+
+        map.getAttributes().addColumns(columns);
+    }
+
+    /**
+     * Write any edits to the columns to the file.
+     *
+     * @throws IOException for errors writing the file.
+     */
+    public void force() throws IOException {
+        if (!records.isReadOnly()) {
+            records.force();
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Close the file. The mapped columns remain valid, and edits continue to be written to the file, until
+     * they are garbage collected.
+     *
+     * @throws IOException for errors closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Returns the class of the enum constants of a column or null if it is not an enum column.
+     *
+     * @param column The column.
+     * @return the class of the enum constants or null.
+     */
+    private static Class<? extends Enum<?>> enumType(TileColumn column) {
+        return (column instanceof TileColumn.OfEnum)
+                ? ((TileColumn.OfEnum<?>) column).getEnumType()
+                : null;
+    }
+
+    /**
+     * Returns the offset rounded up to the record alignment.
+     *
+     * @param offset The offset.
+     * @return the aligned offset.
+     */
+    private static long align(long offset) {
+        return (offset + RECORD_ALIGNMENT - 1) & -RECORD_ALIGNMENT;
+    }
+
+    /**
+     * Read from the file until the buffer is full.
+     *
+     * @param channel The file.
+     * @param into The buffer to fill.
+     * @param position The position in the file of the start of the buffer.
+     * @throws IOException for errors reading the file or if the file ends before the buffer is full.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer into, long position) throws IOException {
+        while (into.hasRemaining()) {
+            if (channel.read(into, position + into.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    /**
+     * Write the remaining contents of a buffer to the file.
+     *
+     * @param channel The file.
+     * @param from The buffer to write.
+     * @param position The position in the file of the start of the buffer.
+     * @throws IOException for errors writing the file.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer from, long position) throws IOException {
+        while (from.hasRemaining()) {
+            channel.write(from, position + from.position());
+        }
+    }
+}
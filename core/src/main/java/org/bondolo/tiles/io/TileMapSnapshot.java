@@ -0,0 +1,885 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.bondolo.tiles.grid.ChunkedTileMap;
+import org.bondolo.tiles.grid.GridTileMap;
+import org.bondolo.tiles.grid.TileAttributes;
+import org.bondolo.tiles.grid.TileColumn;
+
+/**
+ * Compressed snapshots of the {@link TileAttributes attribute} columns of grid maps. The map is divided into
+ * square chunks of {@value ChunkedTileMap#CHUNK_SIZE} tiles and each chunk is encoded separately. Within a
+ * chunk each column is written either as a dictionary of its distinct values followed by runs of dictionary
+ * indexes or, if there are too many distinct values, as runs of values. The encoded chunk is then compressed
+ * with {@link Deflater}.
+ *
+ * <p>
+ * A full snapshot contains every chunk. A delta snapshot contains only the chunks which differ from those of
+ * a base snapshot, which may itself be a full or delta snapshot, so snapshots of large maps with sparse edits
+ * are small and quick to write. Every snapshot records a digest of each chunk, so that deltas may be made
+ * against it, and an identifier derived from the digests which deltas use to refer to their base.
+ *
+ * <p>
+ * A snapshot contains a header describing the tiling, size and columns of the map, the compressed chunks and
+ * then an index of the digest, position and length of each chunk. The final eight bytes are the position of
+ * the index.
+ */
+public final class TileMapSnapshot {
+
+    /**
+     * Identifies snapshot files.
+     */
+    private static final byte[] MAGIC = {'T', 'I', 'L', 'E', 'S', 'N', 'A', 'P'};
+
+    /**
+     * Version of the format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Horizontal and vertical size of a chunk.
+     */
+    private static final int CHUNK_SIZE = ChunkedTileMap.CHUNK_SIZE;
+
+    /**
+     * Maximum number of distinct values in a dictionary encoded column.
+     */
+    private static final int MAX_DICTIONARY_SIZE = 256;
+
+    /**
+     * Encoding of a column as a dictionary and runs of dictionary indexes.
+     */
+    private static final int DICTIONARY = 0;
+
+    /**
+     * Encoding of a column as runs of values.
+     */
+    private static final int RUNS = 1;
+
+    /**
+     * Position of chunks which are not included in a delta snapshot.
+     */
+    private static final long ABSENT = -1L;
+
+    /**
+     * Algorithm of the chunk digests.
+     */
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * Upper bound of the encoded length of a column within a chunk, a run length and a value per tile.
+     */
+    private static final int MAX_ENCODED_COLUMN_LENGTH = 1 + CHUNK_SIZE * CHUNK_SIZE * 2 * Varints.MAX_LENGTH;
+
+    /**
+     * no instances
+     */
+    private TileMapSnapshot() {
+    }
+
+    /**
+     * Write a full snapshot of the attributes of a map.
+     *
+     * @param map The map.
+     * @param file The snapshot file to create, which must not exist.
+     * @return The number of chunks written.
+     * @throws IOException for errors writing the snapshot.
+     */
+    public static int write(GridTileMap<?, ?, ?> map, Path file) throws IOException {
+        return write(map, file, null);
+    }
+
+    /**
+     * Write a delta snapshot containing only the chunks of the map which differ from those of the base
+     * snapshot.
+     *
+     * @param map The map.
+     * @param base The snapshot from which the delta is made.
+     * @param file The snapshot file to create, which must not exist.
+     * @return The number of chunks written.
+     * @throws IOException for errors reading the base snapshot or writing the snapshot or if the base snapshot
+     * is not of the map.
+     */
+    public static int writeDelta(GridTileMap<?, ?, ?> map, Path base, Path file) throws IOException {
+        try (var snapshot = Snapshot.open(base)) {
+            snapshot.checkMatches(map);
+
+            return write(map, file, snapshot);
+        }
+    }
+
+    /**
+     * Restore the attributes of a map from a full snapshot followed by any number of delta snapshots, each
+     * made from the snapshot before it. Columns which the map does not have are added on the heap. Every
+     * chunk is read from the newest snapshot which contains it and checked against its digest before any
+     * attributes of the map are changed.
+     *
+     * @param map The map whose attributes are restored.
+     * @param full The full snapshot.
+     * @param deltas The delta snapshots in the order they were made.
+     * @throws IOException for errors reading the snapshots or if the snapshots are not of the map or are not
+     * a sequence of deltas from the full snapshot.
+     */
+    public static void restore(GridTileMap<?, ?, ?> map, Path full, Path... deltas) throws IOException {
+        var chain = new ArrayList<Snapshot>(1 + deltas.length);
+        try {
+            var first = Snapshot.open(full);
+            chain.add(first);
+            if (0 != first.baseId) {
+                throw new IOException("Not a full snapshot: " + full);
+            }
+            for (var delta : deltas) {
+                var snapshot = Snapshot.open(delta);
+                chain.add(snapshot);
+                if (chain.get(chain.size() - 2).id != snapshot.baseId) {
+                    throw new IOException("Delta snapshot " + delta + " is not made from the previous snapshot");
+                }
+            }
+
+            restore(map, chain);
+        } catch (IOException | RuntimeException failed) {
+            try {
+                close(chain);
+            } catch (IOException closing) {
+                failed.addSuppressed(closing);
+            }
+            throw failed;
+        }
+        close(chain);
+    }
+
+    /**
+     * Restore the attributes of a map from a sequence of snapshots. Every chunk is validated before the map
+     * is changed so that invalid snapshots leave the map unchanged.
+     *
+     * @param map The map whose attributes are restored.
+     * @param chain The full snapshot followed by the delta snapshots in the order they were made.
+     * @throws IOException for errors reading the snapshots or if the snapshots are not of the map or are
+     * invalid.
+     */
+    private static void restore(GridTileMap<?, ?, ?> map, List<Snapshot> chain) throws IOException {
+        var full = chain.get(0);
+        for (var snapshot : chain) {
+            snapshot.checkRestorable(map);
+            if (!snapshot.names.equals(full.names) || !snapshot.types.equals(full.types)
+                    || !snapshot.enumTypes.equals(full.enumTypes)) {
+                throw new IOException("Snapshot " + snapshot.file + " has different columns than " + full.file);
+            }
+        }
+
+        // the newest snapshot which contains each chunk
+        var sources = new Snapshot[full.positions.length];
+        for (var snapshot : chain) {
+            for (int chunk = 0; chunk < sources.length; chunk++) {
+                if (ABSENT != snapshot.positions[chunk]) {
+                    sources[chunk] = snapshot;
+                }
+            }
+        }
+
+        var encoded = ByteBuffer.allocate(Math.max(1, full.names.size()) * MAX_ENCODED_COLUMN_LENGTH);
+        var digest = newDigest();
+        var inflater = new Inflater();
+        try {
+            for (int chunk = 0; chunk < sources.length; chunk++) {
+                if (null == sources[chunk]) {
+                    throw new IOException("Missing chunk in " + full.file);
+                }
+                sources[chunk].inflate(chunk, inflater, digest, encoded);
+            }
+
+            var columns = full.columnsOf(map);
+            int chunksY = chunks(full.ySize);
+            var values = new long[CHUNK_SIZE * CHUNK_SIZE];
+            for (int chunk = 0; chunk < sources.length; chunk++) {
+                var in = sources[chunk].inflate(chunk, inflater, digest, encoded);
+                try {
+                    for (var column : columns) {
+                        decode(map, column, chunk / chunksY, chunk % chunksY, values, in);
+                    }
+                } catch (RuntimeException invalid) {
+                    throw new IOException("Invalid chunk in " + sources[chunk].file, invalid);
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Close snapshots.
+     *
+     * @param snapshots The snapshots to close.
+     * @throws IOException for errors closing the snapshots, the first failure with any others suppressed.
+     */
+    private static void close(List<Snapshot> snapshots) throws IOException {
+        IOException failed = null;
+        for (var snapshot : snapshots) {
+            try {
+                snapshot.close();
+            } catch (IOException closing) {
+                if (null == failed) {
+                    failed = closing;
+                } else {
+                    failed.addSuppressed(closing);
+                }
+            }
+        }
+        if (null != failed) {
+            throw failed;
+        }
+    }
+
+    /**
+     * Decode the values of a column within a chunk into the map.
+     *
+     * @param map The map.
+     * @param column The column.
+     * @param chunkX The horizontal index of the chunk.
+     * @param chunkY The vertical index of the chunk.
+     * @param values Scratch space for the values of the chunk.
+     * @param in The encoded values.
+     * @throws IOException if the encoded values are invalid.
+     */
+    private static void decode(GridTileMap<?, ?, ?> map, TileColumn column, int chunkX, int chunkY, long[] values,
+            ByteBuffer in) throws IOException {
+        int toX = Math.min((chunkX + 1) * CHUNK_SIZE, map.getXSize());
+        int toY = Math.min((chunkY + 1) * CHUNK_SIZE, map.getYSize());
+        int count = (toX - chunkX * CHUNK_SIZE) * (toY - chunkY * CHUNK_SIZE);
+
+        int encoding = in.get();
+        long[] dictionary = null;
+        if (DICTIONARY == encoding) {
+            long size = Varints.get(in);
+            if ((size < 0) || (size > MAX_DICTIONARY_SIZE)) {
+                throw new IOException("Invalid dictionary size: " + size);
+            }
+            dictionary = new long[(int) size];
+            for (int each = 0; each < size; each++) {
+                dictionary[each] = Varints.get(in);
+            }
+        } else if (RUNS != encoding) {
+            throw new IOException("Invalid encoding: " + encoding);
+        }
+        for (int each = 0; each < count;) {
+            long run = Varints.get(in);
+            if ((run <= 0) || (run > count - each)) {
+                throw new IOException("Invalid run: " + run);
+            }
+            long value = (null != dictionary) ? dictionary[in.get() & 0xFF] : Varints.get(in);
+            Arrays.fill(values, each, each + (int) run, value);
+            each += (int) run;
+        }
+
+        long limit = (column instanceof TileColumn.OfEnum)
+                ? ((TileColumn.OfEnum<?>) column).getEnumType().getEnumConstants().length
+                : Long.MAX_VALUE;
+        int each = 0;
+        for (int x = chunkX * CHUNK_SIZE; x < toX; x++) {
+            for (int y = chunkY * CHUNK_SIZE, index = map.indexOf(x, y); y < toY; y++, index++) {
+                if (Long.compareUnsigned(values[each], limit) >= 0) {
+                    throw new IOException("Invalid value of column " + column.getName());
+                }
+                column.setBits(index, values[each++]);
+            }
+        }
+    }
+
+    /**
+     * Write a snapshot.
+     *
+     * @param map The map.
+     * @param file The snapshot file to create, which must not exist.
+     * @param base The snapshot from which a delta is made or null for a full snapshot.
+     * @return The number of chunks written.
+     * @throws IOException for errors writing the snapshot.
+     */
+    private static int write(GridTileMap<?, ?, ?> map, Path file, Snapshot base) throws IOException {
+        var columns = map.getAttributes().getColumns();
+        int chunksX = chunks(map.getXSize());
+        int chunksY = chunks(map.getYSize());
+        int chunkCount = chunksX * chunksY;
+        var digests = new long[chunkCount];
+        var positions = new long[chunkCount];
+        var lengths = new int[chunkCount];
+        int written = 0;
+
+        try (var channel = FileChannel.open(file, CREATE_NEW, WRITE);
+                var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(map.getTiling().name());
+            out.writeInt(map.getXSize());
+            out.writeInt(map.getYSize());
+            out.writeInt(CHUNK_SIZE);
+            out.writeLong((null == base) ? 0 : base.id);
+            out.writeInt(columns.size());
+            for (var column : columns) {
+                out.writeUTF(column.getName());
+                out.writeUTF(column.getType().name());
+                if (column instanceof TileColumn.OfEnum) {
+                    EnumSchema.write(out, ((TileColumn.OfEnum<?>) column).getEnumType());
+                }
+            }
+            long position = out.size();
+
+            var encoded = ByteBuffer.allocate(Math.max(1, columns.size()) * MAX_ENCODED_COLUMN_LENGTH);
+            var values = new long[CHUNK_SIZE * CHUNK_SIZE];
+            var dictionary = new Dictionary();
+            var digest = newDigest();
+            var deflater = new Deflater();
+            var compressed = new byte[8192];
+            try {
+                for (int chunk = 0; chunk < chunkCount; chunk++) {
+                    encoded.clear();
+                    int chunkX = chunk / chunksY;
+                    int chunkY = chunk % chunksY;
+                    for (var column : columns) {
+                        encode(map, column, chunkX, chunkY, values, dictionary, encoded);
+                    }
+                    encoded.flip();
+                    digests[chunk] = digest(digest, encoded.duplicate());
+
+                    if ((null != base) && (base.digests[chunk] == digests[chunk])) {
+                        positions[chunk] = ABSENT;
+                        continue;
+                    }
+
+                    deflater.reset();
+                    deflater.setInput(encoded);
+                    deflater.finish();
+                    positions[chunk] = position;
+                    while (!deflater.finished()) {
+                        int length = deflater.deflate(compressed);
+                        out.write(compressed, 0, length);
+                        lengths[chunk] += length;
+                    }
+                    position += lengths[chunk];
+                    written++;
+                }
+            } finally {
+                deflater.end();
+            }
+
+            // index and the position of the index
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                out.writeLong(digests[chunk]);
+                out.writeLong(positions[chunk]);
+                out.writeInt(lengths[chunk]);
+            }
+            out.writeLong(id(digest, digests));
+            out.writeLong(position);
+        }
+
+        return written;
+    }
+
+    /**
+     * Encode the values of a column within a chunk.
+     *
+     * @param map The map.
+     * @param column The column.
+     * @param chunkX The horizontal index of the chunk.
+     * @param chunkY The vertical index of the chunk.
+     * @param values Scratch space for the values of the chunk.
+     * @param dictionary Scratch space for the distinct values of the chunk.
+     * @param out The destination of the encoded values.
+     */
+    private static void encode(GridTileMap<?, ?, ?> map, TileColumn column, int chunkX, int chunkY, long[] values,
+            Dictionary dictionary, ByteBuffer out) {
+        int count = 0;
+        int toX = Math.min((chunkX + 1) * CHUNK_SIZE, map.getXSize());
+        int toY = Math.min((chunkY + 1) * CHUNK_SIZE, map.getYSize());
+        for (int x = chunkX * CHUNK_SIZE; x < toX; x++) {
+            for (int y = chunkY * CHUNK_SIZE, index = map.indexOf(x, y); y < toY; y++, index++) {
+                values[count++] = column.getBits(index);
+            }
+        }
+
+        dictionary.clear();
+        for (int each = 0; (each < count) && (dictionary.size <= MAX_DICTIONARY_SIZE); each++) {
+            dictionary.add(values[each]);
+        }
+
+        if (dictionary.size <= MAX_DICTIONARY_SIZE) {
+            out.put((byte) DICTIONARY);
+            Varints.put(out, dictionary.size);
+            for (int each = 0; each < dictionary.size; each++) {
+                Varints.put(out, dictionary.values[each]);
+            }
+            for (int each = 0; each < count;) {
+                int end = run(values, each, count);
+                Varints.put(out, end - each);
+                out.put((byte) dictionary.add(values[each]));
+                each = end;
+            }
+        } else {
+            out.put((byte) RUNS);
+            for (int each = 0; each < count;) {
+                int end = run(values, each, count);
+                Varints.put(out, end - each);
+                Varints.put(out, values[each]);
+                each = end;
+            }
+        }
+    }
+
+    /**
+     * Returns the end of the run of identical values which begins at the specified position.
+     *
+     * @param values The values.
+     * @param from The beginning of the run.
+     * @param count The number of values.
+     * @return The end of the run, exclusive.
+     */
+    private static int run(long[] values, int from, int count) {
+        int end = from + 1;
+        while ((end < count) && (values[end] == values[from])) {
+            end++;
+        }
+
+        return end;
+    }
+
+    /**
+     * Returns the number of chunks needed to cover the specified number of tiles.
+     *
+     * @param tiles The number of tiles.
+     * @return The number of chunks.
+     */
+    private static int chunks(int tiles) {
+        return (tiles - 1) / CHUNK_SIZE + 1;
+    }
+
+    /**
+     * Returns a new message digest of the chunk digest algorithm.
+     *
+     * @return The message digest.
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException missing) {
+            throw new IllegalStateException(HASH_ALGORITHM + " unavailable", missing);
+        }
+    }
+
+    /**
+     * Returns a 64-bit digest of the bytes.
+     *
+     * @param digest The message digest, which is reset.
+     * @param bytes The bytes.
+     * @return The digest.
+     */
+    private static long digest(MessageDigest digest, ByteBuffer bytes) {
+        digest.update(bytes);
+
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    /**
+     * Returns the identifier of a snapshot with the specified chunk digests, which is never zero.
+     *
+     * @param digest The message digest, which is reset.
+     * @param digests The chunk digests.
+     * @return The identifier.
+     */
+    private static long id(MessageDigest digest, long[] digests) {
+        var bytes = ByteBuffer.allocate(digests.length * Long.BYTES);
+        bytes.asLongBuffer().put(digests);
+        long id = digest(digest, bytes);
+
+        return (0 == id) ? 1 : id;
+    }
+
+    /**
+     * The distinct values of a column within a chunk in the order they were first added, with an open
+     * addressed table from value to dictionary index.
+     */
+    private static final class Dictionary {
+
+        /**
+         * Number of slots of the table, at least twice the number of values so that probes are short.
+         */
+        private static final int SLOTS = 1024;
+
+        /**
+         * The distinct values in the order they were added, one more than the maximum so that overflow can be
+         * detected.
+         */
+        final long[] values = new long[MAX_DICTIONARY_SIZE + 1];
+
+        /**
+         * Number of distinct values.
+         */
+        int size;
+
+        /**
+         * One more than the dictionary index of the value in each slot or zero for empty slots.
+         */
+        private final int[] slots = new int[SLOTS];
+
+        /**
+         * Remove all of the values.
+         */
+        void clear() {
+            Arrays.fill(slots, 0);
+            size = 0;
+        }
+
+        /**
+         * Returns the dictionary index of a value, adding the value if it is not present. At most one more
+         * value than the maximum dictionary size may be added.
+         *
+         * @param value The value.
+         * @return The dictionary index of the value.
+         */
+        int add(long value) {
+            int slot = (int) ((value * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - Integer.numberOfTrailingZeros(SLOTS)));
+            while (0 != slots[slot]) {
+                if (values[slots[slot] - 1] == value) {
+                    return slots[slot] - 1;
+                }
+                slot = (slot + 1) & (SLOTS - 1);
+            }
+            values[size] = value;
+            slots[slot] = ++size;
+
+            return size - 1;
+        }
+    }
+
+    /**
+     * An open snapshot file whose header and index have been read.
+     */
+    private static final class Snapshot implements AutoCloseable {
+
+        /**
+         * The snapshot file.
+         */
+        private final Path file;
+
+        /**
+         * The open snapshot file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Name of the tiling of the map.
+         */
+        private String tiling;
+
+        /**
+         * Horizontal size of the map in tiles.
+         */
+        private int xSize;
+
+        /**
+         * Vertical size of the map in tiles.
+         */
+        private int ySize;
+
+        /**
+         * Identifier of the base snapshot or zero for a full snapshot.
+         */
+        private long baseId;
+
+        /**
+         * Identifier of this snapshot.
+         */
+        private long id;
+
+        /**
+         * Names of the columns.
+         */
+        private final List<String> names = new ArrayList<>();
+
+        /**
+         * Types of the columns.
+         */
+        private final List<TileColumn.Type> types = new ArrayList<>();
+
+        /**
+         * Enum classes of the columns or null for columns which are not enum columns.
+         */
+        private final List<Class<? extends Enum<?>>> enumTypes = new ArrayList<>();
+
+        /**
+         * Digest of each chunk.
+         */
+        private long[] digests;
+
+        /**
+         * Position of each compressed chunk in the file or {@link #ABSENT} if not included.
+         */
+        private long[] positions;
+
+        /**
+         * Length of each compressed chunk.
+         */
+        private int[] lengths;
+
+        private Snapshot(Path file, FileChannel channel) {
+            this.file = file;
+            this.channel = channel;
+        }
+
+        /**
+         * Open a snapshot and read its header and index.
+         *
+         * @param file The snapshot file.
+         * @return The open snapshot.
+         * @throws IOException for errors reading the snapshot or if it is not a valid snapshot.
+         */
+        static Snapshot open(Path file) throws IOException {
+            var snapshot = new Snapshot(file, FileChannel.open(file, READ));
+            try {
+                snapshot.readHeader();
+                return snapshot;
+            } catch (IOException | RuntimeException failed) {
+                snapshot.close();
+                throw failed;
+            }
+        }
+
+        private void readHeader() throws IOException {
+            var in = new DataInputStream(Channels.newInputStream(channel.position(0)));
+            var magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(MAGIC, magic)) {
+                throw new IOException("Not a tile map snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (VERSION != version) {
+                throw new IOException("Unsupported tile map snapshot version: " + version);
+            }
+            tiling = in.readUTF();
+            xSize = in.readInt();
+            ySize = in.readInt();
+            if ((xSize <= 0) || (ySize <= 0) || (CHUNK_SIZE != in.readInt())) {
+                throw new IOException("Invalid tile map snapshot header: " + file);
+            }
+            baseId = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Invalid tile map snapshot header: " + file);
+            }
+            for (int column = 0; column < count; column++) {
+                names.add(in.readUTF());
+                try {
+                    types.add(TileColumn.Type.valueOf(in.readUTF()));
+                } catch (IllegalArgumentException invalid) {
+                    throw new IOException("Invalid column type in " + file, invalid);
+                }
+                enumTypes.add((TileColumn.Type.ENUM == types.get(column)) ? EnumSchema.read(in) : null);
+            }
+
+            long chunks = (long) chunks(xSize) * chunks(ySize);
+            long indexSize = chunks * (Long.BYTES + Long.BYTES + Integer.BYTES) + Long.BYTES + Long.BYTES;
+            if (((long) xSize * ySize > Integer.MAX_VALUE) || (indexSize > Integer.MAX_VALUE)
+                    || (indexSize > channel.size())) {
+                throw new IOException("Invalid tile map snapshot header: " + file);
+            }
+            int chunkCount = (int) chunks;
+            int indexLength = (int) indexSize;
+            long indexPosition = channel.size() - indexLength;
+            var trailer = read(channel.size() - Long.BYTES, Long.BYTES);
+            if ((indexPosition < 0) || (trailer.getLong() != indexPosition)) {
+                throw new IOException("Invalid tile map snapshot index: " + file);
+            }
+            var index = read(indexPosition, indexLength);
+            digests = new long[chunkCount];
+            positions = new long[chunkCount];
+            lengths = new int[chunkCount];
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                digests[chunk] = index.getLong();
+                positions[chunk] = index.getLong();
+                lengths[chunk] = index.getInt();
+                if ((ABSENT != positions[chunk])
+                        && ((positions[chunk] < 0) || (lengths[chunk] < 0)
+                        || (positions[chunk] + lengths[chunk] > indexPosition))) {
+                    throw new IOException("Invalid tile map snapshot index: " + file);
+                }
+            }
+            id = index.getLong();
+        }
+
+        /**
+         * Check that the snapshot is of a map with the same tiling, size and columns.
+         *
+         * @param map The map.
+         * @throws IOException if the map does not match the snapshot.
+         */
+        void checkMatches(GridTileMap<?, ?, ?> map) throws IOException {
+            var columns = map.getAttributes().getColumns();
+            boolean matches = map.getTiling().name().equals(tiling)
+                    && (map.getXSize() == xSize) && (map.getYSize() == ySize)
+                    && (columns.size() == names.size());
+            for (int column = 0; matches && (column < names.size()); column++) {
+                matches = names.get(column).equals(columns.get(column).getName())
+                        && (types.get(column) == columns.get(column).getType());
+            }
+            if (!matches) {
+                throw new IOException("Snapshot " + file + " is not of the map");
+            }
+        }
+
+        /**
+         * Check that the attributes of a map may be restored from the snapshot without changing the map: that
+         * the snapshot is of a map with the same tiling and size and that the existing columns of the map have
+         * the types of the columns of the snapshot.
+         *
+         * @param map The map.
+         * @throws IOException if the attributes of the map may not be restored from the snapshot.
+         */
+        void checkRestorable(GridTileMap<?, ?, ?> map) throws IOException {
+            if (!map.getTiling().name().equals(tiling) || (map.getXSize() != xSize) || (map.getYSize() != ySize)) {
+                throw new IOException("Snapshot " + file + " is not of the map");
+            }
+
+            var attributes = map.getAttributes();
+            for (int column = 0; column < names.size(); column++) {
+                var type = types.get(column);
+                var existing = attributes.getColumn(names.get(column));
+                if (existing.isPresent()) {
+                    if ((existing.get().getType() != type) || ((TileColumn.Type.ENUM == type)
+                            && (((TileColumn.OfEnum<?>) existing.get()).getEnumType() != enumTypes.get(column)))) {
+                        throw new IOException("Column " + names.get(column) + " of the map does not match " + file);
+                    }
+                } else if ((long) attributes.size() * type.getWidth() > Integer.MAX_VALUE) {
+                    throw new IOException("Too many tiles for " + type + " column " + names.get(column));
+                }
+            }
+        }
+
+        /**
+         * Returns the columns of the map in the order of the columns of the snapshot, adding the columns which
+         * the map does not have.
+         *
+         * @param map The map, whose attributes have been {@link #checkRestorable checked}.
+         * @return The columns.
+         */
+        TileColumn[] columnsOf(GridTileMap<?, ?, ?> map) {
+            var attributes = map.getAttributes();
+            var columns = new TileColumn[names.size()];
+            var added = new ArrayList<TileColumn>();
+            for (int column = 0; column < columns.length; column++) {
+                var existing = attributes.getColumn(names.get(column));
+                if (existing.isPresent()) {
+                    columns[column] = existing.get();
+                } else {
+                    var type = types.get(column);
+                    // the capacity was checked to fit in a buffer
+                    var buffer = ByteBuffer.allocate(Math.multiplyExact(attributes.size(), type.getWidth()))
+                            .order(ByteOrder.nativeOrder());
+                    columns[column] = TileColumn.of(names.get(column), type, enumTypes.get(column),
+                            attributes.size(), buffer, 0, type.getWidth());
+                    added.add(columns[column]);
+                }
+            }
+            attributes.addColumns(added);
+
+            return columns;
+        }
+
+        /**
+         * Read and decompress a chunk and check it against its digest.
+         *
+         * @param chunk The index of the chunk, which must be included in the snapshot.
+         * @param inflater Decompresses the chunk.
+         * @param digest The message digest, which is reset.
+         * @param into Receives the encoded chunk, which must be no larger than the buffer.
+         * @return The buffer, containing the encoded chunk.
+         * @throws IOException for errors reading the chunk or if the chunk is invalid or does not match its
+         * digest.
+         */
+        ByteBuffer inflate(int chunk, Inflater inflater, MessageDigest digest, ByteBuffer into) throws IOException {
+            var compressed = read(positions[chunk], lengths[chunk]);
+            inflater.reset();
+            inflater.setInput(compressed);
+            into.clear();
+            try {
+                while (!inflater.finished()) {
+                    if (!into.hasRemaining()) {
+                        throw new IOException("Oversized chunk in " + file);
+                    }
+                    if ((0 == inflater.inflate(into)) && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Truncated chunk in " + file);
+                    }
+                }
+            } catch (DataFormatException invalid) {
+                throw new IOException("Invalid chunk in " + file, invalid);
+            }
+            into.flip();
+            if (digest(digest, into.duplicate()) != digests[chunk]) {
+                throw new IOException("Chunk does not match its digest in " + file);
+            }
+
+            return into;
+        }
+
+        /**
+         * Read bytes from the snapshot.
+         *
+         * @param position The position of the bytes.
+         * @param length The number of bytes.
+         * @return The bytes.
+         * @throws IOException for errors reading or if the snapshot is truncated.
+         */
+        private ByteBuffer read(long position, int length) throws IOException {
+            var bytes = ByteBuffer.allocate(length);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, position + bytes.position()) < 0) {
+                    throw new IOException("Truncated tile map snapshot: " + file);
+                }
+            }
+
+            return bytes.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
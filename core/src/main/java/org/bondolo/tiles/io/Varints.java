@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes and reads variable length quantities, unsigned little-endian base 128 integers of which each byte
+ * holds seven bits of the value and has its high bit set if more bytes follow.
+ */
+final class Varints {
+
+    /**
+     * Maximum number of bytes of a variable length quantity.
+     */
+    static final int MAX_LENGTH = 10;
+
+    /**
+     * no instances
+     */
+    private Varints() {
+    }
+
+    /**
+     * Write a variable length quantity.
+     *
+     * @param out The destination, which must have at least {@link #MAX_LENGTH} bytes remaining.
+     * @param value The value, interpreted as unsigned.
+     */
+    static void put(ByteBuffer out, long value) {
+        while (0 != (value & ~0x7FL)) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Returns true if the remaining bytes hold an entire variable length quantity, or enough bytes to
+     * determine that it is invalid.
+     *
+     * @param in The source.
+     * @return true if {@link #get(ByteBuffer)} will not need more bytes otherwise false.
+     */
+    static boolean isComplete(ByteBuffer in) {
+        if (in.remaining() >= MAX_LENGTH) {
+            return true;
+        }
+        for (int index = in.position(); index < in.limit(); index++) {
+            if (in.get(index) >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Read a variable length quantity.
+     *
+     * @param in The source.
+     * @return The value.
+     * @throws IOException if the quantity is truncated or longer than {@link #MAX_LENGTH} bytes.
+     */
+    static long get(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            if (!in.hasRemaining()) {
+                throw new EOFException("Truncated variable length quantity");
+            }
+            byte each = in.get();
+            value |= (long) (each & 0x7F) << shift;
+            if (each >= 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Invalid variable length quantity");
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/**
+ * Persistence of {@link org.bondolo.tiles.grid.GridTileMap grid maps}. A
+ * {@link org.bondolo.tiles.io.TileMapFile tile map file} maps the
+ * {@link org.bondolo.tiles.grid.TileAttributes attributes} of a map from disk so that huge maps open
+ * instantly and may be shared between processes. The {@link org.bondolo.tiles.io.TileMapCodec tile map codec}
+ * writes and reads entire maps, including the state of their tiles, as compact streams.
+ * {@link org.bondolo.tiles.io.TileMapSnapshot Snapshots} save the attributes of a map as compressed chunks
+ * and may contain only the chunks changed since an earlier snapshot.
+ */
+package org.bondolo.tiles.io;
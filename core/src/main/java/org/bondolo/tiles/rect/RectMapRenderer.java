@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.rect;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import org.bondolo.tiles.grid.GridMapRenderer;
+import static org.bondolo.tiles.grid.GridTileCoord.NO_COORD;
+import static org.bondolo.tiles.grid.GridTileCoord.pack;
+import static org.bondolo.tiles.grid.GridTileCoord.unpackX;
+import static org.bondolo.tiles.grid.GridTileCoord.unpackY;
+
+/**
+ * Renders a map composed of square tiles.
+ *
+ * @param <RT> Type of tiles
+ */
+public class RectMapRenderer<RT extends RectTile> extends GridMapRenderer<RectTileMap<RT>, RT, RectTileDimension, RectTileCoord> {
+
+    /**
+     * Construct a new map renderer.
+     *
+     * @param map The map.
+     */
+    public RectMapRenderer(RectTileMap<RT> map) {
+        super(map);
+    }
+
+    @Override
+    public Rectangle2D getMapBounds(RectTileDimension dim) {
+        return new Rectangle2D.Double(0.0, 0.0,
+                dim.getWidth() * map.getXSize() + 1,
+                dim.getHeight() * map.getYSize() + 1);
+    }
+
+    @Override
+    public int[] visibleRange(Rectangle2D area, RectTileDimension dim) {
+        int fromX = (int) Math.floor(area.getMinX() / dim.getSide());
+        int fromY = (int) Math.floor(area.getMinY() / dim.getSide());
+        int toX = (int) Math.floor(area.getMaxX() / dim.getSide()) + 1;
+        int toY = (int) Math.floor(area.getMaxY() / dim.getSide()) + 1;
+
+        return new int[] {fromX, fromY, toX, toY};
+    }
+
+    @Override
+    public long pointToCoordPacked(double x, double y, RectTileDimension dim) {
+        int coord_x = (int) (x / dim.getSide());
+        int coord_y = (int) (y / dim.getSide());
+
+        return (coord_x < 0) || (coord_x >= map.getXSize()) ||
+                (coord_y < 0) || (coord_y >= map.getYSize())
+            ? NO_COORD
+            : pack(coord_x, coord_y);
+    }
+
+    @Override
+    public Point2D coordToPoint(long coord, RectTileDimension dim, Point2D into) {
+        int coord_x = unpackX(coord);
+        int coord_y = unpackY(coord);
+        double pixel_x = coord_x * dim.getWidth();
+        double pixel_y = coord_y * dim.getHeight();
+
+        into.setLocation(pixel_x, pixel_y);
+
+        return into;
+    }
+}
@@ -21,9 +21,7 @@
  */
 package org.bondolo.tiles.rect;
 
-import java.awt.Dimension;
-import java.awt.geom.Point2D;
-import org.bondolo.tiles.TileMapView;
+import org.bondolo.tiles.grid.GridMapView;
 
 /**
  * A view onto a map composed of square tiles.
@@ -31,7 +29,7 @@ import org.bondolo.tiles.TileMapView;
  * @param <RT> Type of tiles
  */
 @SuppressWarnings("serial")
-public class RectMapView<RT extends RectTile> extends TileMapView<RectTileMap<RT>, RT, RectTileDimension, RectTileCoord> {
+public class RectMapView<RT extends RectTile> extends GridMapView<RectTileMap<RT>, RT, RectTileDimension, RectTileCoord> {
 
     /**
      * Construct a new map view.
@@ -41,37 +39,6 @@ public class RectMapView<RT extends RectTile> extends TileMapView<RectTileMap<RT
      * @param initialScale The initial scale.
      */
     public RectMapView(RectTileMap<RT> map, RectTileDimension scales[], int initialScale) {
-        super(map, scales, initialScale);
-    }
-
-    @Override
-    public Dimension getPreferredSize() {
-        var dim = getDimension(getScale());
-
-        return new Dimension(
-                (int) (dim.getWidth() * map.getXSize()) + 1,
-                (int) (dim.getHeight() * map.getYSize()) + 1
-                );
-    }
-
-    @Override
-    public RectTileCoord pointToCoord(Point2D point, RectTileDimension dim) {
-        int coord_x = (int) (point.getX() / dim.getSide());
-        int coord_y = (int) (point.getY() / dim.getSide());
-
-        return (coord_x < 0) || (coord_x >= map.getXSize()) ||
-                (coord_y < 0) || (coord_y >= map.getYSize())
-            ? null
-            : new RectTileCoord(coord_x, coord_y);
-    }
-
-    @Override
-    public Point2D coordToPoint(RectTileCoord coord, RectTileDimension dim) {
-        int coord_x = coord.getX();
-        int coord_y = coord.getY();
-        double pixel_x = coord_x * dim.getWidth();
-        double pixel_y = coord_y * dim.getHeight();
-
-        return new Point2D.Double(pixel_x, pixel_y);
+        super(new RectMapRenderer<>(map), scales, initialScale);
     }
 }
@@ -21,11 +21,11 @@
  */
 package org.bondolo.tiles.rect;
 
+import org.bondolo.tiles.TileBatch;
 import org.bondolo.tiles.grid.GridTile;
 import static java.awt.Color.LIGHT_GRAY;
+import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.geom.Path2D;
-import static java.awt.geom.Path2D.WIND_NON_ZERO;
 import java.awt.geom.Point2D;
 
 /**
@@ -49,20 +49,42 @@ public class RectTile extends GridTile<RectTileCoord, RectTileDimension> {
      */
     @Override
     public void draw(final Graphics2D g, final Point2D origin, final RectTileDimension dim, boolean highlight) {
-        var p = new Path2D.Double(WIND_NON_ZERO, 10);
+        drawStyle(g, origin, dim, highlight);
+
+        super.draw(g, origin, dim, highlight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the class of the tile or, for subclasses, which may draw a different style, {@code null}.
+     * Subclasses which share styles must override.
+     */
+    @Override
+    public Object getStyleKey() {
+        if (RectTile.class != getClass()) {
+            // subclasses may draw a different style
+            return null;
+        }
+
+        return getClass();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Draws the outline of the tile in the current color and optionally fills it with light gray
+     * if highlighted
+     */
+    @Override
+    public void drawStyle(final Graphics2D g, final Point2D origin, final RectTileDimension dim, boolean highlight) {
+        var p = dim.getOutline();
         double x = origin.getX();
         double y = origin.getY();
-        double s = dim.getSide();
-
-        p.moveTo(x, y);
-        p.lineTo(x + s, y);
-        p.lineTo(x + s, y + s);
-        p.lineTo(x, y + s);
-        p.lineTo(x, y);
-        p.closePath();
 
         var currentColor = g.getColor();
 
+        g.translate(x, y);
         if (highlight) {
             g.setColor(LIGHT_GRAY);
             g.fill(p);
@@ -70,7 +92,58 @@ public class RectTile extends GridTile<RectTileCoord, RectTileDimension> {
 
         g.setColor(currentColor);
         g.draw(p);
+        g.translate(-x, -y);
+    }
 
-        super.draw(g, origin, dim, highlight);
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns light gray if highlighted otherwise {@code null}.
+     */
+    @Override
+    public Color getFillColor(boolean highlight) {
+        return highlight ? LIGHT_GRAY : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Fills the tile with the {@link #getFillColor(boolean) fill color}, if any.
+     */
+    @Override
+    public void drawFill(final Graphics2D g, final Point2D origin, final RectTileDimension dim, boolean highlight) {
+        var fill = getFillColor(highlight);
+        if (null != fill) {
+            var p = dim.getOutline();
+            double x = origin.getX();
+            double y = origin.getY();
+
+            g.translate(x, y);
+            g.setColor(fill);
+            g.fill(p);
+            g.translate(-x, -y);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Batches the outline of the tile in the current color and, if highlighted, its light gray fill.
+     * Subclasses are not batched, and are drawn individually, unless they override this method.
+     */
+    @Override
+    public boolean batch(TileBatch batch, Point2D origin, RectTileDimension dim, boolean highlight) {
+        if (RectTile.class != getClass()) {
+            // subclasses may draw a different style
+            return false;
+        }
+
+        var p = dim.getOutline();
+        if (highlight) {
+            batch.fill(p, origin.getX(), origin.getY(), LIGHT_GRAY);
+        }
+        batch.draw(p, origin.getX(), origin.getY(), null);
+
+        return true;
     }
 }
@@ -21,6 +21,8 @@
  */
 package org.bondolo.tiles.rect;
 
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
 import org.bondolo.tiles.grid.GridTileDimension;
 
 /**
@@ -39,6 +41,11 @@ public class RectTileDimension extends GridTileDimension {
      *   +-----------+
      */
 
+    /**
+     * Outline of a tile with its origin at (0,0).
+     */
+    private final Shape outline;
+
     /**
      * Construct a new square tile dimension object for the specified scale.
      *
@@ -46,6 +53,7 @@ public class RectTileDimension extends GridTileDimension {
      */
     public RectTileDimension(final int side) {
         super(side);
+        this.outline = new Rectangle2D.Double(0, 0, side, side);
     }
 
     @Override
@@ -82,4 +90,14 @@ public class RectTileDimension extends GridTileDimension {
     public double boundingPerimeter() {
         return perimeter();
     }
+
+    /**
+     * Returns the outline of a tile with its origin at (0,0). The outline is shared and must not be
+     * modified.
+     *
+     * @return the outline of a tile.
+     */
+    public Shape getOutline() {
+        return outline;
+    }
 }
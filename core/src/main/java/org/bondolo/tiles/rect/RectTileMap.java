@@ -22,6 +22,8 @@
 package org.bondolo.tiles.rect;
 
 import org.bondolo.tiles.grid.GridTileMap;
+import org.bondolo.tiles.grid.TileFactory;
+import org.bondolo.tiles.grid.Tiling;
 
 /**
  *  A Cartesian grid map composed of square tiles.
@@ -38,4 +40,20 @@ public class RectTileMap<RT extends RectTile> extends GridTileMap<RT, RectTileCo
     public RectTileMap(RT tiles[][]) {
         super(tiles);
     }
+
+    /**
+     * Construct a new map of tiles which are created on first access.
+     *
+     * @param xSize The horizontal size of the map.
+     * @param ySize The vertical size of the map.
+     * @param factory Creates the tile at each location.
+     */
+    public RectTileMap(int xSize, int ySize, TileFactory<? extends RT> factory) {
+        super(xSize, ySize, factory);
+    }
+
+    @Override
+    public Tiling getTiling() {
+        return Tiling.RECT;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.tri;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import org.bondolo.tiles.grid.GridMapRenderer;
+import static org.bondolo.tiles.grid.GridTileCoord.NO_COORD;
+import static org.bondolo.tiles.grid.GridTileCoord.pack;
+import static org.bondolo.tiles.grid.GridTileCoord.unpackX;
+import static org.bondolo.tiles.grid.GridTileCoord.unpackY;
+
+/**
+ * Renders a map composed of triangle tiles.
+ *
+ * @param <TT> type of tiles in the map
+ */
+public class TriMapRenderer<TT extends TriTile> extends GridMapRenderer<TriTileMap<TT>, TT, TriTileDimension, TriTileCoord> {
+
+    /**
+     * Construct a new map renderer.
+     *
+     * @param map The map.
+     */
+    public TriMapRenderer(TriTileMap<TT> map) {
+        super(map);
+    }
+
+    @Override
+    public Rectangle2D getMapBounds(TriTileDimension dim) {
+        return new Rectangle2D.Double(0.0, 0.0,
+                dim.getWidth() * (map.getXSize() + 1) / 2 + 1,
+                dim.getHeight() * map.getYSize() + 2);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns half of the triangle side, adjacent triangles overlap by half.
+     */
+    @Override
+    public double getColumnStep(TriTileDimension dim) {
+        return dim.getSide() / 2.0;
+    }
+
+
+    @Override
+    public int[] visibleRange(Rectangle2D area, TriTileDimension dim) {
+        double halfSide = dim.getSide() / 2.0;
+
+        // A point lies within the tile of its section or the tile to the left.
+        int fromX = (int) Math.floor(area.getMinX() / halfSide) - 1;
+        int fromY = (int) Math.floor(area.getMinY() / dim.getHeight());
+        int toX = (int) Math.floor(area.getMaxX() / halfSide) + 1;
+        int toY = (int) Math.floor(area.getMaxY() / dim.getHeight()) + 1;
+
+        return new int[] {fromX, fromY, toX, toY};
+    }
+
+    @Override
+    public long pointToCoordPacked(double x, double y, TriTileDimension dim) {
+        int section_x = (int) (x / (dim.getSide() / 2.0));
+        int sectionPxl_x = (int) (x % (dim.getSide() / 2.0));
+        int coord_y = (int) (y / dim.getHeight());
+        int sectionPxl_y = (int) (y % dim.getHeight());
+        double m = dim.getHeight() / (dim.getSide() / 2.0);
+
+        int coord_x;
+
+        int yforx = (int) (sectionPxl_x * m);
+
+        if((0 != (section_x % 2) ^ (0 != (coord_y % 2)))) {
+            // points down
+            if(sectionPxl_y > yforx) {
+                coord_x = section_x -1;
+            } else {
+                coord_x = section_x;
+            }
+        } else {
+            // points up
+            if(sectionPxl_y < (dim.getHeight() - yforx)) {
+                coord_x = section_x - 1;
+            } else {
+                coord_x = section_x;
+            }
+        }
+
+        if ((coord_x < 0) || (coord_x >= map.getXSize()) ||
+                (coord_y < 0) || (coord_y >= map.getYSize())) {
+            return NO_COORD;
+        } else {
+            return pack(coord_x, coord_y);
+        }
+    }
+
+    @Override
+    public Point2D coordToPoint(long coord, TriTileDimension dim, Point2D into) {
+        int coord_x = unpackX(coord);
+        int coord_y = unpackY(coord);
+        double pixel_x = coord_x * (dim.getWidth() / 2.0);
+        double pixel_y = coord_y * dim.getHeight();
+
+        into.setLocation(pixel_x, pixel_y);
+
+        return into;
+    }
+}
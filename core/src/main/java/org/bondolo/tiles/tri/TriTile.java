@@ -21,12 +21,12 @@
  */
 package org.bondolo.tiles.tri;
 
+import org.bondolo.tiles.TileBatch;
 import org.bondolo.tiles.grid.GridTile;
 import static java.awt.Color.LIGHT_GRAY;
 import static java.awt.Color.black;
+import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.geom.Path2D;
-import static java.awt.geom.Path2D.WIND_NON_ZERO;
 import java.awt.geom.Point2D;
 
 /**
@@ -50,25 +50,51 @@ public class TriTile extends GridTile<TriTileCoord, TriTileDimension> {
      */
     @Override
     public void draw(final Graphics2D g, Point2D origin, TriTileDimension dim, boolean highlight) {
-        var p = new Path2D.Double(WIND_NON_ZERO, 10);
-        double x = origin.getX();
-        double y = origin.getY();
-        double s = dim.getSide();
-
-        if((0 != (coord.getX() % 2) ^ (0 != (coord.getY() % 2)))) {
-            // Down pointing
-            p.moveTo(x, y);
-            p.lineTo(x + s, y);
-            p.lineTo(x + (s / 2.0), y + dim.getHeight());
-        } else {
-            // Up pointing
-            p.moveTo(x + (s / 2.0), y);
-            p.lineTo(x + s, y + dim.getHeight());
-            p.lineTo(x, y + dim.getHeight());
+        drawStyle(g, origin, dim, highlight);
+
+        super.draw(g, origin, dim, highlight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Draws the tile label in black.
+     */
+    @Override
+    public void drawDetail(final Graphics2D g, Point2D origin, TriTileDimension dim, boolean highlight) {
+        g.setColor(black);
+
+        super.drawDetail(g, origin, dim, highlight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the orientation of the tile or, for subclasses, which may draw a different style, {@code null}.
+     * Subclasses which share styles must override.
+     */
+    @Override
+    public Object getStyleKey() {
+        if (TriTile.class != getClass()) {
+            // subclasses may draw a different style
+            return null;
         }
 
-        p.closePath();
+        return isDown() ? Orientation.DOWN : Orientation.UP;
+    }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Draws the outline of the tile in black and optionally fills it with light gray if highlighted
+     */
+    @Override
+    public void drawStyle(final Graphics2D g, Point2D origin, TriTileDimension dim, boolean highlight) {
+        var p = dim.getOutline(isDown());
+        double x = origin.getX();
+        double y = origin.getY();
+
+        g.translate(x, y);
         if (highlight) {
             g.setColor(LIGHT_GRAY);
             g.fill(p);
@@ -76,7 +102,75 @@ public class TriTile extends GridTile<TriTileCoord, TriTileDimension> {
 
         g.setColor(black);
         g.draw(p);
+        g.translate(-x, -y);
+    }
 
-        super.draw(g, origin, dim, highlight);
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns light gray if highlighted otherwise {@code null}.
+     */
+    @Override
+    public Color getFillColor(boolean highlight) {
+        return highlight ? LIGHT_GRAY : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Fills the tile with the {@link #getFillColor(boolean) fill color}, if any.
+     */
+    @Override
+    public void drawFill(final Graphics2D g, Point2D origin, TriTileDimension dim, boolean highlight) {
+        var fill = getFillColor(highlight);
+        if (null != fill) {
+            var p = dim.getOutline(isDown());
+            double x = origin.getX();
+            double y = origin.getY();
+
+            g.translate(x, y);
+            g.setColor(fill);
+            g.fill(p);
+            g.translate(-x, -y);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Batches the outline of the tile in black and, if highlighted, its light gray fill. Subclasses
+     * are not batched, and are drawn individually, unless they override this method.
+     */
+    @Override
+    public boolean batch(TileBatch batch, Point2D origin, TriTileDimension dim, boolean highlight) {
+        if (TriTile.class != getClass()) {
+            // subclasses may draw a different style
+            return false;
+        }
+
+        var p = dim.getOutline(isDown());
+        if (highlight) {
+            batch.fill(p, origin.getX(), origin.getY(), LIGHT_GRAY);
+        }
+        batch.draw(p, origin.getX(), origin.getY(), black);
+
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the tile points down.
+     *
+     * @return {@code true} if the tile points down otherwise {@code false} if it points up.
+     */
+    private boolean isDown() {
+        return (0 != (coord.getX() % 2) ^ (0 != (coord.getY() % 2)));
+    }
+
+    /**
+     * Tile orientations.
+     */
+    private enum Orientation {
+        UP,
+        DOWN;
     }
 }
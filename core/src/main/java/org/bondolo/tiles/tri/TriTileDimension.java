@@ -21,6 +21,9 @@
  */
 package org.bondolo.tiles.tri;
 
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import static java.awt.geom.Path2D.WIND_NON_ZERO;
 import static java.lang.Math.sqrt;
 import org.bondolo.tiles.grid.GridTileDimension;
 
@@ -38,7 +41,17 @@ public class TriTileDimension extends GridTileDimension {
      *       \   /          |
      *        \ /           |
      *         V           -+
-     *
+     */
+
+    /**
+     * Outline of an up pointing tile with its origin at (0,0).
+     */
+    private final Shape upOutline;
+
+    /**
+     * Outline of a down pointing tile with its origin at (0,0).
+     */
+    private final Shape downOutline;
 
     /**
      * Construct a new square tile dimension object for the specified scale.
@@ -47,6 +60,21 @@ public class TriTileDimension extends GridTileDimension {
      */
     public TriTileDimension(final int side) {
         super(side);
+        double height = getHeight();
+
+        var up = new Path2D.Double(WIND_NON_ZERO, 5);
+        up.moveTo(side / 2.0, 0);
+        up.lineTo(side, height);
+        up.lineTo(0, height);
+        up.closePath();
+        this.upOutline = up;
+
+        var down = new Path2D.Double(WIND_NON_ZERO, 5);
+        down.moveTo(0, 0);
+        down.lineTo(side, 0);
+        down.lineTo(side / 2.0, height);
+        down.closePath();
+        this.downOutline = down;
     }
 
     @Override
@@ -83,4 +111,16 @@ public class TriTileDimension extends GridTileDimension {
     public double boundingPerimeter() {
         return Math.scalb(getHeight() + getWidth(), 1);
     }
+
+    /**
+     * Returns the outline of a tile with its origin at (0,0). The outline is shared and must not be
+     * modified.
+     *
+     * @param down if {@code true} then the outline of a down pointing tile otherwise the outline of an up
+     * pointing tile.
+     * @return the outline of a tile.
+     */
+    public Shape getOutline(boolean down) {
+        return down ? downOutline : upOutline;
+    }
 }
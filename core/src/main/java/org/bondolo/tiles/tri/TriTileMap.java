@@ -22,6 +22,8 @@
 package org.bondolo.tiles.tri;
 
 import org.bondolo.tiles.grid.GridTileMap;
+import org.bondolo.tiles.grid.TileFactory;
+import org.bondolo.tiles.grid.Tiling;
 
 /**
  *  A Cartesian grid map composed of triangular tiles.
@@ -38,4 +40,20 @@ public class TriTileMap<TT extends TriTile> extends GridTileMap<TT, TriTileCoord
     public TriTileMap(TT tiles[][]) {
         super(tiles);
     }
+
+    /**
+     * Construct a new map of tiles which are created on first access.
+     *
+     * @param xSize The horizontal size of the map.
+     * @param ySize The vertical size of the map.
+     * @param factory Creates the tile at each location.
+     */
+    public TriTileMap(int xSize, int ySize, TileFactory<? extends TT> factory) {
+        super(xSize, ySize, factory);
+    }
+
+    @Override
+    public Tiling getTiling() {
+        return Tiling.TRI;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.scalability;
+
+import java.awt.image.BufferedImage;
+import static java.awt.image.BufferedImage.TYPE_INT_RGB;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.bondolo.tiles.grid.GridMapRenderer;
+import org.bondolo.tiles.grid.GridTile;
+import org.bondolo.tiles.grid.GridTileCoord;
+import org.bondolo.tiles.grid.GridTileDimension;
+import org.bondolo.tiles.grid.GridTileMap;
+
+/**
+ * Measures a single map. Each operation is repeated until it has run for at least the minimum time so that
+ * small maps are measured over many passes and huge maps over a single pass.
+ */
+final class Harness {
+
+    /**
+     * Size of the square image into which maps are painted.
+     */
+    private static final int IMAGE_SIZE = 1024;
+
+    /**
+     * Maximum number of distinct coordinates looked up.
+     */
+    private static final int MAX_LOOKUP_COORDS = 1 << 16;
+
+    /**
+     * Minimum number of tiles constructed when measuring construction time and heap.
+     */
+    private static final long MIN_CONSTRUCTED_TILES = 1_000_000;
+
+    /**
+     * Measures the heap used by constructed maps.
+     */
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    /**
+     * Minimum time for which each operation is repeated.
+     */
+    private final long minNanos;
+
+    /**
+     * Number of {@code getTile(C)} lookups timed.
+     */
+    private final int lookups;
+
+    /**
+     * Largest number of tiles for which painting is measured.
+     */
+    private final long paintLimit;
+
+    /**
+     * Accumulates the results of measured operations so that they are not optimized away.
+     */
+    private long sink;
+
+    /**
+     * Construct a new harness.
+     *
+     * @param minMillis Minimum time in milliseconds for which each operation is repeated.
+     * @param lookups Number of {@code getTile(C)} lookups timed.
+     * @param paintLimit Largest number of tiles for which painting is measured.
+     */
+    Harness(long minMillis, int lookups, long paintLimit) {
+        this.minNanos = TimeUnit.MILLISECONDS.toNanos(minMillis);
+        this.lookups = lookups;
+        this.paintLimit = paintLimit;
+    }
+
+    /**
+     * Measure a map.
+     *
+     * @param <M> The class of the tile map.
+     * @param <T> The class of a tile in the map.
+     * @param <D> The class of a tile dimension.
+     * @param <C> The class of a tile coordinate.
+     * @param measurement The measurement to complete.
+     * @param construct Constructs the map, including its tiles.
+     * @param renderers Constructs a renderer for the map.
+     * @param dim The tile dimensions used for painting.
+     */
+    <M extends GridTileMap<T, C, D>, T extends GridTile<C, D>, D extends GridTileDimension, C extends GridTileCoord> void measure(
+            Measurement measurement, Supplier<M> construct, Function<M, ? extends GridMapRenderer<M, T, D, C>> renderers,
+            D dim) {
+        long tiles = measurement.getTiles();
+
+        // small maps are constructed several times so that the heap they use is measurable
+        var maps = new Object[(int) Math.max(1, MIN_CONSTRUCTED_TILES / tiles)];
+        long before = usedHeap();
+        long start = System.nanoTime();
+        for (int each = 0; each < maps.length; each++) {
+            maps[each] = construct.get();
+        }
+        measurement.setConstructMillis((System.nanoTime() - start) / 1e6 / maps.length);
+        measurement.setBytesPerTile((double) (usedHeap() - before) / tiles / maps.length);
+        @SuppressWarnings("unchecked")
+        var map = (M) maps[0];
+        maps = null;
+
+        measurement.setSerialScanTilesPerSecond(tiles * 1e9
+                / repeat(() -> map.tiles().mapToLong(tile -> tile.getCoord().getX()).sum()));
+        measurement.setParallelScanTilesPerSecond(tiles * 1e9
+                / repeat(() -> map.tiles().parallel().mapToLong(tile -> tile.getCoord().getX()).sum()));
+
+        var random = new SplittableRandom(tiles);
+        @SuppressWarnings("unchecked")
+        var coords = (C[]) new GridTileCoord[(int) Math.min(MAX_LOOKUP_COORDS, tiles)];
+        for (int each = 0; each < coords.length; each++) {
+            coords[each] = map.getTile(random.nextInt(map.getXSize()), random.nextInt(map.getYSize())).getCoord();
+        }
+        measurement.setGetTileNanos(repeat(() -> {
+            long found = 0;
+            for (int each = 0; each < lookups; each++) {
+                found += map.getTile(coords[each % coords.length]).get().getCoord().getY();
+            }
+            return found;
+        }) / lookups);
+
+        if (tiles <= paintLimit) {
+            var renderer = renderers.apply(map);
+            var image = new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, TYPE_INT_RGB);
+            measurement.setPaintMillis(repeat(() -> {
+                // without a clip every tile of the map is drawn
+                var g2 = image.createGraphics();
+                try {
+                    renderer.render(g2, dim, tile -> false);
+                } finally {
+                    g2.dispose();
+                }
+                return image.getRGB(0, 0);
+            }) / 1e6);
+        }
+    }
+
+    /**
+     * Repeat an operation until it has run for at least the minimum time.
+     *
+     * @param operation The operation, which returns a result that must not be optimized away.
+     * @return The mean time of an operation in nanoseconds.
+     */
+    private double repeat(LongSupplier operation) {
+        long passes = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            sink += operation.getAsLong();
+            passes++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < minNanos);
+
+        return (double) elapsed / passes;
+    }
+
+    /**
+     * Returns the heap in use after garbage collection.
+     *
+     * @return The heap in use in bytes.
+     */
+    private long usedHeap() {
+        for (int each = 0; each < 3; each++) {
+            memory.gc();
+        }
+
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.scalability;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * The measurements of a single map size of a tiling, written as a CSV row. Measurements which were not made
+ * are written as empty values.
+ */
+final class Measurement {
+
+    /**
+     * The CSV header naming each column.
+     */
+    static final String HEADER = "tiling,tiles,xSize,ySize,status,constructMillis,bytesPerTile,"
+            + "serialScanTilesPerSecond,parallelScanTilesPerSecond,getTileNanos,paintMillis";
+
+    /**
+     * The status of a completed measurement.
+     */
+    static final String OK = "OK";
+
+    /**
+     * The name of the tiling measured.
+     */
+    private final String tiling;
+
+    /**
+     * The horizontal size of the map.
+     */
+    private final int xSize;
+
+    /**
+     * The vertical size of the map.
+     */
+    private final int ySize;
+
+    /**
+     * {@link #OK} or a description of the failure which ended the measurement.
+     */
+    private String status = OK;
+
+    /**
+     * Milliseconds to construct the map.
+     */
+    private double constructMillis = Double.NaN;
+
+    /**
+     * Heap used by the map for each tile.
+     */
+    private double bytesPerTile = Double.NaN;
+
+    /**
+     * Tiles visited per second by a serial scan of all of the tiles.
+     */
+    private double serialScanTilesPerSecond = Double.NaN;
+
+    /**
+     * Tiles visited per second by a parallel scan of all of the tiles.
+     */
+    private double parallelScanTilesPerSecond = Double.NaN;
+
+    /**
+     * Nanoseconds per {@code getTile(C)} lookup.
+     */
+    private double getTileNanos = Double.NaN;
+
+    /**
+     * Milliseconds to paint the entire map.
+     */
+    private double paintMillis = Double.NaN;
+
+    /**
+     * Construct a new measurement.
+     *
+     * @param tiling The name of the tiling.
+     * @param xSize The number of columns of tiles.
+     * @param ySize The number of rows of tiles.
+     */
+    Measurement(String tiling, int xSize, int ySize) {
+        this.tiling = tiling;
+        this.xSize = xSize;
+        this.ySize = ySize;
+    }
+
+    /**
+     * Returns the number of tiles in the map.
+     *
+     * @return The number of tiles in the map.
+     */
+    long getTiles() {
+        return (long) xSize * ySize;
+    }
+
+    /**
+     * Returns the status of the measurement.
+     *
+     * @return {@link #OK} or the reason the measurement did not complete.
+     */
+    String getStatus() {
+        return status;
+    }
+
+    void setStatus(String status) {
+        this.status = status;
+    }
+
+    void setConstructMillis(double constructMillis) {
+        this.constructMillis = constructMillis;
+    }
+
+    void setBytesPerTile(double bytesPerTile) {
+        this.bytesPerTile = bytesPerTile;
+    }
+
+    void setSerialScanTilesPerSecond(double serialScanTilesPerSecond) {
+        this.serialScanTilesPerSecond = serialScanTilesPerSecond;
+    }
+
+    void setParallelScanTilesPerSecond(double parallelScanTilesPerSecond) {
+        this.parallelScanTilesPerSecond = parallelScanTilesPerSecond;
+    }
+
+    void setGetTileNanos(double getTileNanos) {
+        this.getTileNanos = getTileNanos;
+    }
+
+    void setPaintMillis(double paintMillis) {
+        this.paintMillis = paintMillis;
+    }
+
+    /**
+     * Returns the measurement as a CSV row in the order of the {@link #HEADER}.
+     *
+     * @return The CSV row.
+     */
+    String toCsv() {
+        var row = new StringJoiner(",");
+        row.add(tiling);
+        row.add(Long.toString(getTiles()));
+        row.add(Integer.toString(xSize));
+        row.add(Integer.toString(ySize));
+        row.add(status);
+        row.add(format(constructMillis));
+        row.add(format(bytesPerTile));
+        row.add(format(serialScanTilesPerSecond));
+        row.add(format(parallelScanTilesPerSecond));
+        row.add(format(getTileNanos));
+        row.add(format(paintMillis));
+
+        return row.toString();
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.3f", value);
+    }
+}
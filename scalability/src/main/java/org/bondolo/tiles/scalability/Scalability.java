@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.scalability;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures grid tile maps from 10<sup>2</sup> to 10<sup>8</sup> tiles and writes the results as CSV, one row
+ * per tiling and map size. For each map the construction time, heap per tile, serial and parallel
+ * {@code tiles()} scan throughput, {@code getTile(C)} latency and the time to paint the entire map are
+ * measured. Once a map of a tiling cannot be constructed within the heap the larger maps of that tiling are
+ * skipped.
+ *
+ * <p>
+ * Options:
+ * <dl>
+ * <dt>{@code --tilings HEX,RECT,TRI}</dt><dd>The tilings to measure.</dd>
+ * <dt>{@code --min 2}, {@code --max 8}</dt><dd>The range of powers of ten of the number of tiles.</dd>
+ * <dt>{@code --side 8}</dt><dd>The length of a tile side in pixels used for painting.</dd>
+ * <dt>{@code --paint-limit 1000000}</dt><dd>The largest number of tiles for which painting is measured.</dd>
+ * <dt>{@code --lookups 1000000}</dt><dd>The number of {@code getTile(C)} lookups timed per pass.</dd>
+ * <dt>{@code --min-millis 500}</dt><dd>The minimum time for which each operation is repeated.</dd>
+ * <dt>{@code --lazy false}</dt><dd>If true then tiles are created on first access rather than with the map.</dd>
+ * <dt>{@code --output file}</dt><dd>The CSV file to write, the default is standard output.</dd>
+ * </dl>
+ */
+public final class Scalability {
+
+    /**
+     * Number of columns and rows of the map measured, and discarded, before each tiling.
+     */
+    private static final int WARM_UP_SIZE = 10;
+
+    /**
+     * no instances
+     */
+    private Scalability() {
+    }
+
+    /**
+     * @param args The options.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        List<Tiling> tilings = Arrays.asList(Tiling.values());
+        int min = 2;
+        int max = 8;
+        int side = 8;
+        long paintLimit = 1_000_000;
+        int lookups = 1_000_000;
+        long minMillis = 500;
+        boolean lazy = false;
+        Path output = null;
+
+        for (int arg = 0; arg < args.length; arg++) {
+            String option = args[arg];
+            if (++arg == args.length) {
+                throw new IllegalArgumentException("missing value for " + option);
+            }
+            String value = args[arg];
+            switch (option) {
+                case "--tilings" -> {
+                    tilings = new ArrayList<>();
+                    for (var name : value.split(",")) {
+                        tilings.add(Tiling.valueOf(name.trim()));
+                    }
+                }
+                case "--min" -> min = Integer.parseInt(value);
+                case "--max" -> max = Integer.parseInt(value);
+                case "--side" -> side = Integer.parseInt(value);
+                case "--paint-limit" -> paintLimit = Long.parseLong(value);
+                case "--lookups" -> lookups = Integer.parseInt(value);
+                case "--min-millis" -> minMillis = Long.parseLong(value);
+                case "--lazy" -> lazy = Boolean.parseBoolean(value);
+                case "--output" -> output = Path.of(value);
+                default -> throw new IllegalArgumentException("unknown option " + option);
+            }
+        }
+        if ((min < 0) || (max < min) || (max > 18)) {
+            throw new IllegalArgumentException("invalid range of powers of ten");
+        }
+
+        var harness = new Harness(minMillis, lookups, paintLimit);
+        try (var out = (null == output)
+                ? new PrintStream(System.out, true, StandardCharsets.UTF_8)
+                : new PrintStream(Files.newOutputStream(output), true, StandardCharsets.UTF_8)) {
+            out.println(Measurement.HEADER);
+            for (var tiling : tilings) {
+                // warm up class loading, fonts and compilation so that they are not attributed to the smallest map
+                tiling.measure(harness, new Measurement(tiling.name(), WARM_UP_SIZE, WARM_UP_SIZE), WARM_UP_SIZE,
+                        WARM_UP_SIZE, side, lazy);
+
+                for (int power = min; power <= max; power++) {
+                    // split the tiles evenly between columns and rows
+                    int xSize = (int) Math.pow(10, (power + 1) / 2);
+                    int ySize = (int) Math.pow(10, power / 2);
+                    var measurement = new Measurement(tiling.name(), xSize, ySize);
+                    System.err.printf("%s %,d tiles%n", tiling, measurement.getTiles());
+                    try {
+                        tiling.measure(harness, measurement, xSize, ySize, side, lazy);
+                    } catch (OutOfMemoryError | IllegalArgumentException failed) {
+                        measurement.setStatus(failed.getClass().getSimpleName());
+                    }
+                    out.println(measurement.toCsv());
+
+                    if (!Measurement.OK.equals(measurement.getStatus())) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2011, 2020 Mike Duigou
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bondolo.tiles.scalability;
+
+import java.util.function.Supplier;
+import org.bondolo.tiles.hex.HexMapRenderer;
+import org.bondolo.tiles.hex.HexTile;
+import org.bondolo.tiles.hex.HexTileCoord;
+import org.bondolo.tiles.hex.HexTileDimension;
+import org.bondolo.tiles.hex.HexTileMap;
+import org.bondolo.tiles.rect.RectMapRenderer;
+import org.bondolo.tiles.rect.RectTile;
+import org.bondolo.tiles.rect.RectTileCoord;
+import org.bondolo.tiles.rect.RectTileDimension;
+import org.bondolo.tiles.rect.RectTileMap;
+import org.bondolo.tiles.tri.TriMapRenderer;
+import org.bondolo.tiles.tri.TriTile;
+import org.bondolo.tiles.tri.TriTileCoord;
+import org.bondolo.tiles.tri.TriTileDimension;
+import org.bondolo.tiles.tri.TriTileMap;
+
+/**
+ * The tilings which are measured and the construction of their maps.
+ */
+enum Tiling {
+
+    HEX {
+        @Override
+        void measure(Harness harness, Measurement measurement, int xSize, int ySize, int side, boolean lazy) {
+            Supplier<HexTileMap<HexTile>> construct = lazy
+                    ? () -> new HexTileMap<>(xSize, ySize, (x, y) -> new HexTile(new HexTileCoord(x, y)))
+                    : () -> {
+                var tiles = new HexTile[xSize][ySize];
+                for (var x = 0; x < xSize; x++) {
+                    for (var y = 0; y < ySize; y++) {
+                        tiles[x][y] = new HexTile(new HexTileCoord(x, y));
+                    }
+                }
+
+                return new HexTileMap<>(tiles);
+            };
+
+            harness.measure(measurement, construct, HexMapRenderer::new, new HexTileDimension(side));
+        }
+    },
+    RECT {
+        @Override
+        void measure(Harness harness, Measurement measurement, int xSize, int ySize, int side, boolean lazy) {
+            Supplier<RectTileMap<RectTile>> construct = lazy
+                    ? () -> new RectTileMap<>(xSize, ySize, (x, y) -> new RectTile(new RectTileCoord(x, y)))
+                    : () -> {
+                var tiles = new RectTile[xSize][ySize];
+                for (var x = 0; x < xSize; x++) {
+                    for (var y = 0; y < ySize; y++) {
+                        tiles[x][y] = new RectTile(new RectTileCoord(x, y));
+                    }
+                }
+
+                return new RectTileMap<>(tiles);
+            };
+
+            harness.measure(measurement, construct, RectMapRenderer::new, new RectTileDimension(side));
+        }
+    },
+    TRI {
+        @Override
+        void measure(Harness harness, Measurement measurement, int xSize, int ySize, int side, boolean lazy) {
+            Supplier<TriTileMap<TriTile>> construct = lazy
+                    ? () -> new TriTileMap<>(xSize, ySize, (x, y) -> new TriTile(new TriTileCoord(x, y)))
+                    : () -> {
+                var tiles = new TriTile[xSize][ySize];
+                for (var x = 0; x < xSize; x++) {
+                    for (var y = 0; y < ySize; y++) {
+                        tiles[x][y] = new TriTile(new TriTileCoord(x, y));
+                    }
+                }
+
+                return new TriTileMap<>(tiles);
+            };
+
+            harness.measure(measurement, construct, TriMapRenderer::new, new TriTileDimension(side));
+        }
+    };
+
+    /**
+     * Construct and measure a new map of this tiling.
+     *
+     * @param harness The harness which makes the measurements.
+     * @param measurement The measurement to complete.
+     * @param xSize The number of columns of tiles.
+     * @param ySize The number of rows of tiles.
+     * @param side The length of a tile side in pixels used for painting.
+     * @param lazy If true then the tiles are created on first access rather than when the map is constructed.
+     */
+    abstract void measure(Harness harness, Measurement measurement, int xSize, int ySize, int side, boolean lazy);
+}
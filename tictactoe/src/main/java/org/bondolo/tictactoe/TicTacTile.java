@@ -21,15 +21,18 @@
  */
 package org.bondolo.tictactoe;
 
+import org.bondolo.tiles.TileBatch;
 import org.bondolo.tiles.rect.RectTile;
 import org.bondolo.tiles.rect.RectTileCoord;
 import org.bondolo.tiles.rect.RectTileDimension;
 import java.awt.BasicStroke;
 import static java.awt.BasicStroke.CAP_ROUND;
 import static java.awt.BasicStroke.JOIN_ROUND;
+import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Path2D;
 import static java.awt.geom.Path2D.WIND_NON_ZERO;
@@ -60,10 +63,30 @@ public class TicTacTile extends RectTile {
         X_MARK = p;
     }
 
+    /**
+     * The width of the mark stroke relative to the size of the mark.
+     */
+    private final static double MARK_WIDTH = 0.15;
+
      /**
      * The drawing stroke we use for drawing the mark on a tile.
      */
-    private final static Stroke MARK_STROKE = new BasicStroke((float) 0.15, CAP_ROUND, JOIN_ROUND);
+    private final static Stroke MARK_STROKE = new BasicStroke((float) MARK_WIDTH, CAP_ROUND, JOIN_ROUND);
+
+    /**
+     * The most recently used dimension and the mark stroke scaled for it, used when batching.
+     */
+    private static volatile ScaledStroke scaledStroke = new ScaledStroke(null, MARK_STROKE);
+
+    /**
+     * The look and feel color of a mark.
+     */
+    private final static String MARK_COLOR = "TextArea.foreground";
+
+    /**
+     * The look and feel color of a highlighted mark.
+     */
+    private final static String HIGHLIGHT_MARK_COLOR = "TextArea.inactiveForeground";
 
     /**
      * Possible tile states.
@@ -84,13 +107,95 @@ public class TicTacTile extends RectTile {
         super(coord);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the tile state or, for subclasses, which may draw a different style, {@code null}.
+     * Subclasses which share styles must override.
+     */
+    @Override
+    public Object getStyleKey() {
+        if (TicTacTile.class != getClass()) {
+            // subclasses may draw a different style
+            return null;
+        }
+
+        return getState();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Draws the entire tile.
+     */
+    @Override
+    public void drawStyle(Graphics2D g2, Point2D origin, RectTileDimension dim, boolean highlight) {
+        draw(g2, origin, dim, highlight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Draws nothing, the entire tile is drawn as style.
+     */
+    @Override
+    public void drawDetail(Graphics2D g2, Point2D origin, RectTileDimension dim, boolean highlight) {
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the color of the mark or {@code null} if the tile is blank.
+     */
+    @Override
+    public Color getFillColor(boolean highlight) {
+        return (BLANK == getState())
+                ? null
+                : UIManager.getColor(highlight ? HIGHLIGHT_MARK_COLOR : MARK_COLOR);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Batches the mark, if any, with a stroke scaled to the tile. The stroke is cached for the
+     * dimension and the mark colors are looked up once per frame. Subclasses are not batched unless they
+     * override this method.
+     */
+    @Override
+    public boolean batch(TileBatch batch, Point2D origin, RectTileDimension dim, boolean highlight) {
+        if (TicTacTile.class != getClass()) {
+            // subclasses may draw a different style
+            return false;
+        }
+
+        var mark = getMark();
+
+        if (null != mark) {
+            double insetx = dim.getWidth() / 6;
+            double insety = dim.getHeight() / 6;
+            double w = dim.getWidth() - 2 * insetx;
+            double h = dim.getHeight() - 2 * insety;
+            var transform = AffineTransform.getTranslateInstance(origin.getX() + insetx, origin.getY() + insety);
+            transform.scale(w, h);
+
+            var color = batch.cached(highlight ? HIGHLIGHT_MARK_COLOR : MARK_COLOR, UIManager::getColor);
+
+            var stroke = scaledStroke;
+            if (dim != stroke.dim) {
+                stroke = new ScaledStroke(dim,
+                        new BasicStroke((float) (MARK_WIDTH * Math.min(w, h)), CAP_ROUND, JOIN_ROUND));
+                scaledStroke = stroke;
+            }
+
+            batch.draw(mark, transform, color, stroke.stroke);
+        }
+
+        return true;
+    }
+
     @Override
     public void draw(Graphics2D g2, Point2D origin, RectTileDimension dim, boolean highlight) {
-        var mark = switch (getState()) {
-            case X -> X_MARK;
-            case O -> O_MARK;
-            default -> null;
-        };
+        var mark = getMark();
 
         if (null != mark) {
             // draw the mark
@@ -108,7 +213,7 @@ public class TicTacTile extends RectTile {
             g2.scale(w, h);
 
             g2.setStroke(MARK_STROKE);
-            g2.setColor(UIManager.getColor(highlight ? "TextArea.inactiveForeground" : "TextArea.foreground"));
+            g2.setColor(UIManager.getColor(highlight ? HIGHLIGHT_MARK_COLOR : MARK_COLOR));
 
             g2.draw(mark);
 
@@ -118,6 +223,19 @@ public class TicTacTile extends RectTile {
         }
     }
 
+    /**
+     * Returns the mark for the tile state.
+     *
+     * @return the mark for the tile state or {@code null} if the tile is blank.
+     */
+    private Shape getMark() {
+        return switch (getState()) {
+            case X -> X_MARK;
+            case O -> O_MARK;
+            default -> null;
+        };
+    }
+
     /**
      * Returns the tile state.
      *
@@ -135,4 +253,25 @@ public class TicTacTile extends RectTile {
     public void setState(TileState state) {
         this.state = state;
     }
+
+    /**
+     * A mark stroke scaled for a dimension.
+     */
+    private static final class ScaledStroke {
+
+        /**
+         * The dimension for which the stroke is scaled.
+         */
+        final RectTileDimension dim;
+
+        /**
+         * The scaled stroke.
+         */
+        final Stroke stroke;
+
+        ScaledStroke(RectTileDimension dim, Stroke stroke) {
+            this.dim = dim;
+            this.stroke = stroke;
+        }
+    }
 }